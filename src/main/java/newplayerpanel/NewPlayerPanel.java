@@ -5,16 +5,24 @@ import newplayerpanel.messages.MessageManager;
 import newplayerpanel.restrictions.RestrictionsModule;
 import newplayerpanel.spawnprotect.SpawnProtectCommand;
 import newplayerpanel.spawnprotect.SpawnProtectModule;
+import newplayerpanel.storage.AsyncStorage;
 import newplayerpanel.storage.DatabaseStorage;
 import newplayerpanel.storage.JsonStorage;
 import newplayerpanel.storage.StorageProvider;
+import newplayerpanel.util.PermissionCache;
+import newplayerpanel.util.PlayerNameIndex;
+import newplayerpanel.util.PlaytimeTracker;
 import newplayerpanel.villagertracker.VillagerTrackerModule;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class NewPlayerPanel extends JavaPlugin {
     
     private StorageProvider storageProvider;
+    private AsyncStorage asyncStorage;
     private MessageManager messageManager;
+    private PlaytimeTracker playtimeTracker;
+    private PermissionCache permissionCache;
+    private PlayerNameIndex playerNameIndex;
     private VillagerTrackerModule villagerTrackerModule;
     private RestrictionsModule restrictionsModule;
     private SpawnProtectModule spawnProtectModule;
@@ -31,9 +39,22 @@ public class NewPlayerPanel extends JavaPlugin {
         this.messageManager = new MessageManager(this, storageProvider);
         messageManager.loadMessages();
         
-        this.villagerTrackerModule = new VillagerTrackerModule(this, storageProvider, messageManager);
-        this.restrictionsModule = new RestrictionsModule(this, storageProvider, messageManager);
-        this.spawnProtectModule = new SpawnProtectModule(this, messageManager);
+        this.playtimeTracker = new PlaytimeTracker(this);
+        getServer().getPluginManager().registerEvents(playtimeTracker, this);
+        
+        this.permissionCache = new PermissionCache(this,
+            PermissionCache.RESTRICTIONS_BYPASS, PermissionCache.SPAWNPROTECT_BYPASS);
+        getServer().getPluginManager().registerEvents(permissionCache, this);
+        permissionCache.start();
+        
+        this.playerNameIndex = new PlayerNameIndex(this);
+        getServer().getPluginManager().registerEvents(playerNameIndex, this);
+        playerNameIndex.load();
+        
+        this.villagerTrackerModule = new VillagerTrackerModule(this, asyncStorage, messageManager);
+        this.spawnProtectModule = new SpawnProtectModule(this, messageManager, playtimeTracker, permissionCache);
+        this.restrictionsModule = new RestrictionsModule(this, storageProvider, messageManager, playtimeTracker, permissionCache,
+            spawnProtectModule.getManager(), playerNameIndex);
         
         registerCommands();
         
@@ -74,6 +95,8 @@ public class NewPlayerPanel extends JavaPlugin {
             return false;
         }
         
+        this.asyncStorage = new AsyncStorage(this, storageProvider);
+        asyncStorage.start();
         return true;
     }
     
@@ -106,6 +129,14 @@ public class NewPlayerPanel extends JavaPlugin {
             villagerTrackerModule.onDisable();
             villagerTrackerModule = null;
         }
+        if (permissionCache != null) {
+            permissionCache.stop();
+            permissionCache = null;
+        }
+        if (asyncStorage != null) {
+            asyncStorage.shutdown();
+            asyncStorage = null;
+        }
         if (storageProvider != null) {
             storageProvider.shutdown();
             storageProvider = null;
@@ -134,6 +165,11 @@ public class NewPlayerPanel extends JavaPlugin {
             spawnProtectModule.reload();
         }
         
+        if (permissionCache != null) {
+            permissionCache.start();
+            permissionCache.refreshAll();
+        }
+        
         getLogger().info("NewPlayerPanel configuration reloaded!");
     }
     
@@ -141,10 +177,26 @@ public class NewPlayerPanel extends JavaPlugin {
         return storageProvider;
     }
     
+    public AsyncStorage getAsyncStorage() {
+        return asyncStorage;
+    }
+    
     public MessageManager getMessageManager() {
         return messageManager;
     }
     
+    public PlaytimeTracker getPlaytimeTracker() {
+        return playtimeTracker;
+    }
+    
+    public PermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+    
+    public PlayerNameIndex getPlayerNameIndex() {
+        return playerNameIndex;
+    }
+    
     public VillagerTrackerModule getVillagerTrackerModule() {
         return villagerTrackerModule;
     }
@@ -2,7 +2,13 @@ package newplayerpanel.commands;
 
 import newplayerpanel.NewPlayerPanel;
 import newplayerpanel.messages.MessageManager;
+import newplayerpanel.restrictions.RestrictionMetrics;
 import newplayerpanel.restrictions.RestrictionsManager;
+import newplayerpanel.storage.DatabaseStorage;
+import newplayerpanel.storage.RestrictionWriteQueue;
+import newplayerpanel.storage.VillagerDeathWriteQueue;
+import newplayerpanel.util.TimeUtil;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -17,6 +23,7 @@ public class NPPCommand implements CommandExecutor, TabCompleter {
     
     private static final List<String> RESTRICTION_TYPES = Arrays.asList("EQUIPMENT", "ITEM", "ENTITY", "COMMAND");
     private static final List<String> ACTIONS = Arrays.asList("DAMAGE", "USE", "DROP", "PICKUP", "EQUIP", "EXECUTE");
+    private static final int STATS_MAX_RULES = 10;
     
     public NPPCommand(NewPlayerPanel plugin, MessageManager messageManager) {
         this.plugin = plugin;
@@ -37,6 +44,8 @@ public class NPPCommand implements CommandExecutor, TabCompleter {
                 return handleReload(sender);
             case "addrestriction":
                 return handleAddRestriction(sender, args);
+            case "stats":
+                return handleStats(sender, args);
             default:
                 sendHelp(sender);
                 return true;
@@ -109,10 +118,129 @@ public class NPPCommand implements CommandExecutor, TabCompleter {
         return true;
     }
     
+    private boolean handleStats(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("newplayerpanel.admin")) {
+            sender.sendMessage(messageManager.get("no-permission"));
+            return true;
+        }
+        
+        if (args.length == 2 && args[1].equalsIgnoreCase("storage")) {
+            sendStorageStats(sender);
+            return true;
+        }
+        
+        if (args.length < 2 || !args[1].equalsIgnoreCase("restrictions") || plugin.getRestrictionsModule() == null) {
+            sender.sendMessage(messageManager.get("stats-usage"));
+            return true;
+        }
+        
+        RestrictionMetrics metrics = plugin.getRestrictionsModule().getRestrictionsManager().getMetrics();
+        if (!metrics.isEnabled()) {
+            sender.sendMessage(messageManager.get("stats-disabled"));
+            return true;
+        }
+        
+        if (args.length >= 3) {
+            if (args[2].equalsIgnoreCase("reset")) {
+                metrics.reset();
+                sender.sendMessage(messageManager.get("stats-restrictions-reset"));
+            } else if (args[2].equalsIgnoreCase("dump")) {
+                Bukkit.getScheduler().runTaskAsynchronously(plugin, metrics::dump);
+                sender.sendMessage(messageManager.get("stats-restrictions-dumped", "file", metrics.getDumpFile().getName()));
+            } else {
+                sender.sendMessage(messageManager.get("stats-usage"));
+            }
+            return true;
+        }
+        
+        long elapsedSeconds = (System.currentTimeMillis() - metrics.getSince()) / 1000L;
+        sender.sendMessage(messageManager.get("stats-restrictions-header",
+            "time", TimeUtil.formatTimeLocalized(elapsedSeconds, messageManager)));
+        
+        List<RestrictionMetrics.EventStats> events = metrics.getEventStats();
+        List<RestrictionMetrics.RestrictionStats> rules = metrics.getRestrictionStats();
+        if (events.isEmpty() && rules.isEmpty()) {
+            sender.sendMessage(messageManager.get("stats-restrictions-empty"));
+            return true;
+        }
+        
+        if (!events.isEmpty()) {
+            sender.sendMessage(messageManager.get("stats-restrictions-events-header"));
+            for (RestrictionMetrics.EventStats stats : events) {
+                sender.sendMessage(messageManager.get("stats-restrictions-event",
+                    "event", stats.getAction().name(),
+                    "count", stats.getEvents(),
+                    "total", stats.getNanos() / 1_000_000L,
+                    "avg", String.format(Locale.ROOT, "%.2f", stats.getAverageNanos() / 1000.0)));
+            }
+        }
+        
+        if (!rules.isEmpty()) {
+            sender.sendMessage(messageManager.get("stats-restrictions-rules-header"));
+            for (RestrictionMetrics.RestrictionStats stats : rules.subList(0, Math.min(rules.size(), STATS_MAX_RULES))) {
+                sender.sendMessage(messageManager.get("stats-restrictions-rule",
+                    "restriction", stats.getName(),
+                    "checks", stats.getChecks(),
+                    "denials", stats.getDenials(),
+                    "avg", String.format(Locale.ROOT, "%.2f", stats.getAverageNanos() / 1000.0)));
+                for (RestrictionMetrics.ActionStats action : stats.getActions()) {
+                    sender.sendMessage(messageManager.get("stats-restrictions-rule-action",
+                        "action", action.getAction().name(),
+                        "checks", action.getChecks(),
+                        "denials", action.getDenials(),
+                        "avg", String.format(Locale.ROOT, "%.2f", action.getAverageNanos() / 1000.0)));
+                }
+            }
+        }
+        return true;
+    }
+    
+    private void sendStorageStats(CommandSender sender) {
+        sender.sendMessage(messageManager.get("stats-storage-header"));
+        if (plugin.getAsyncStorage() != null) {
+            sender.sendMessage(messageManager.get("stats-storage-executor",
+                "depth", plugin.getAsyncStorage().getQueueDepth(),
+                "rejected", plugin.getAsyncStorage().getRejectedCount()));
+        }
+        
+        if (plugin.getRestrictionsModule() != null) {
+            RestrictionWriteQueue writes = plugin.getRestrictionsModule().getRestrictionsManager().getWriteQueue();
+            sender.sendMessage(messageManager.get("stats-storage-restrictions",
+                "pending", writes.getPendingCount(),
+                "limit", writes.getSoftLimit(),
+                "peak", writes.getHighWatermark(),
+                "hits", writes.getSoftLimitHits()));
+            sender.sendMessage(messageManager.get("stats-storage-restrictions-totals",
+                "written", writes.getWrittenCount(),
+                "batches", writes.getBatchCount(),
+                "coalesced", writes.getCoalescedCount(),
+                "failed", writes.getFailedBatchCount(),
+                "retried", writes.getRetriedCount(),
+                "dropped", writes.getDroppedCount()));
+        }
+        
+        if (plugin.getStorageProvider() instanceof DatabaseStorage) {
+            VillagerDeathWriteQueue queue = ((DatabaseStorage) plugin.getStorageProvider()).getVillagerDeathQueue();
+            if (queue != null) {
+                sender.sendMessage(messageManager.get("stats-storage-deaths",
+                    "pending", queue.getPendingCount(),
+                    "capacity", queue.getCapacity(),
+                    "peak", queue.getHighWatermark()));
+                sender.sendMessage(messageManager.get("stats-storage-deaths-totals",
+                    "written", queue.getWrittenCount(),
+                    "batches", queue.getBatchCount(),
+                    "retries", queue.getRetryCount(),
+                    "overflows", queue.getOverflowCount(),
+                    "dropped", queue.getDroppedCount()));
+            }
+        }
+    }
+    
     private void sendHelp(CommandSender sender) {
         sender.sendMessage(messageManager.get("npp-help-header"));
         sender.sendMessage(messageManager.get("npp-help-reload"));
         sender.sendMessage(messageManager.get("npp-help-addrestriction"));
+        sender.sendMessage(messageManager.get("npp-help-stats"));
     }
     
     @Override
@@ -120,12 +248,21 @@ public class NPPCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
         
         if (args.length == 1) {
-            List<String> subCommands = Arrays.asList("reload", "addrestriction");
+            List<String> subCommands = Arrays.asList("reload", "addrestriction", "stats");
             for (String sub : subCommands) {
                 if (sub.startsWith(args[0].toLowerCase())) {
                     completions.add(sub);
                 }
             }
+        } else if (args[0].equalsIgnoreCase("stats")) {
+            List<String> options = args.length == 2 ? Arrays.asList("restrictions", "storage")
+                : args.length == 3 && args[1].equalsIgnoreCase("restrictions") ? Arrays.asList("reset", "dump")
+                : Collections.emptyList();
+            for (String option : options) {
+                if (option.startsWith(args[args.length - 1].toLowerCase())) {
+                    completions.add(option);
+                }
+            }
         } else if (args.length >= 2 && args[0].equalsIgnoreCase("addrestriction")) {
             if (args.length == 2) {
             } else if (args.length == 3) {
@@ -0,0 +1,193 @@
+package newplayerpanel.restrictions;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.logging.Logger;
+
+public final class CommandMatcher {
+
+    private static final Restriction[] NONE = new Restriction[0];
+
+    private final String[] keys;
+    private final Restriction[][] values;
+    private final int mask;
+    private final int size;
+
+    private CommandMatcher(Map<String, List<Restriction>> entries) {
+        int capacity = 16;
+        while (capacity < entries.size() * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new String[capacity];
+        this.values = new Restriction[capacity][];
+        this.mask = capacity - 1;
+        this.size = entries.size();
+
+        for (Map.Entry<String, List<Restriction>> entry : entries.entrySet()) {
+            String key = entry.getKey();
+            int slot = hash(key, 0, key.length()) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = entry.getValue().toArray(new Restriction[0]);
+        }
+    }
+
+    public static CommandMatcher empty() {
+        return new CommandMatcher(Collections.emptyMap());
+    }
+
+    public static CommandMatcher build(RestrictionIndex index, Logger logger) {
+        Map<String, List<Restriction>> entries = new HashMap<>();
+        Map<String, Restriction[]> restricted = index.getCommandRestrictionMap();
+
+        for (Map.Entry<String, Restriction[]> entry : restricted.entrySet()) {
+            addAll(entries, lowerCase(entry.getKey()), entry.getValue());
+        }
+
+        Map<String, Command> knownCommands = loadKnownCommands(logger);
+        if (!knownCommands.isEmpty() && !restricted.isEmpty()) {
+            Map<Command, Set<Restriction>> byCommand = new IdentityHashMap<>();
+            for (Map.Entry<String, Restriction[]> entry : restricted.entrySet()) {
+                Command command = knownCommands.get(entry.getKey());
+                if (command != null) {
+                    Collections.addAll(byCommand.computeIfAbsent(command, k -> new LinkedHashSet<>()), entry.getValue());
+                }
+            }
+
+            if (!byCommand.isEmpty()) {
+                for (Map.Entry<String, Command> entry : knownCommands.entrySet()) {
+                    Set<Restriction> restrictions = byCommand.get(entry.getValue());
+                    if (restrictions != null) {
+                        addAll(entries, lowerCase(entry.getKey()), restrictions.toArray(new Restriction[0]));
+                    }
+                }
+            }
+        }
+
+        return new CommandMatcher(entries);
+    }
+
+    public Restriction[] match(String message) {
+        int start = message.startsWith("/") ? 1 : 0;
+        int end = start;
+        int colon = -1;
+        int length = message.length();
+        while (end < length) {
+            char c = message.charAt(end);
+            if (c == ' ') {
+                break;
+            }
+            if (c == ':') {
+                colon = end;
+            }
+            end++;
+        }
+
+        if (end == start || size == 0) {
+            return NONE;
+        }
+
+        Restriction[] restrictions = lookup(message, start, end);
+        if (restrictions == null && colon >= 0 && colon + 1 < end) {
+            restrictions = lookup(message, colon + 1, end);
+        }
+        return restrictions != null ? restrictions : NONE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Restriction[] lookup(String source, int start, int end) {
+        int slot = hash(source, start, end) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (matches(key, source, start, end)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static boolean matches(String key, String source, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != Character.toLowerCase(source.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(String source, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(source.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static String lowerCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static void addAll(Map<String, List<Restriction>> entries, String key, Restriction[] restrictions) {
+        List<Restriction> list = entries.computeIfAbsent(key, k -> new ArrayList<>(restrictions.length));
+        for (Restriction restriction : restrictions) {
+            if (!list.contains(restriction)) {
+                list.add(restriction);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Command> loadKnownCommands(Logger logger) {
+        try {
+            Object server = Bukkit.getServer();
+            if (server == null) {
+                return Collections.emptyMap();
+            }
+            Method getCommandMap = server.getClass().getMethod("getCommandMap");
+            Object commandMap = getCommandMap.invoke(server);
+            if (commandMap == null) {
+                return Collections.emptyMap();
+            }
+
+            Object known = null;
+            try {
+                known = commandMap.getClass().getMethod("getKnownCommands").invoke(commandMap);
+            } catch (NoSuchMethodException ignored) {
+                for (Class<?> type = commandMap.getClass(); type != null && known == null; type = type.getSuperclass()) {
+                    try {
+                        Field field = type.getDeclaredField("knownCommands");
+                        field.setAccessible(true);
+                        known = field.get(commandMap);
+                    } catch (NoSuchFieldException ignoredField) {
+                    }
+                }
+            }
+
+            if (known instanceof Map) {
+                return new HashMap<>((Map<String, Command>) known);
+            }
+        } catch (Exception e) {
+            if (logger != null) {
+                logger.fine("Could not read server command aliases: " + e.getMessage());
+            }
+        }
+        return Collections.emptyMap();
+    }
+}
@@ -0,0 +1,90 @@
+package newplayerpanel.restrictions;
+
+import newplayerpanel.messages.MessageManager;
+import newplayerpanel.util.ActionBarUtil;
+import newplayerpanel.util.TimeUtil;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+public class DenialFeedback {
+
+    private static final int CACHE_SIZE = 512;
+
+    private final MessageManager messageManager;
+    private final Map<UUID, long[]> lastSent = new HashMap<>();
+    private final Map<String, ActionBarUtil.PreparedMessage> renderCache;
+    private long intervalNanos;
+
+    public DenialFeedback(MessageManager messageManager, long intervalMillis) {
+        this.messageManager = messageManager;
+        this.renderCache = new LinkedHashMap<String, ActionBarUtil.PreparedMessage>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ActionBarUtil.PreparedMessage> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+        setInterval(intervalMillis);
+    }
+
+    public void setInterval(long intervalMillis) {
+        this.intervalNanos = Math.max(0L, intervalMillis) * 1_000_000L;
+    }
+
+    public boolean tryAcquire(UUID playerUUID, int restrictionId) {
+        if (intervalNanos == 0L || restrictionId < 0) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        long[] slots = lastSent.get(playerUUID);
+        if (slots == null || slots.length <= restrictionId) {
+            long[] grown = new long[Math.max(restrictionId + 1, 8)];
+            if (slots != null) {
+                System.arraycopy(slots, 0, grown, 0, slots.length);
+            }
+            slots = grown;
+            lastSent.put(playerUUID, slots);
+        }
+
+        long last = slots[restrictionId];
+        if (last != 0L && now - last < intervalNanos) {
+            return false;
+        }
+        slots[restrictionId] = now == 0L ? 1L : now;
+        return true;
+    }
+
+    public void send(Player player, String messageKey, long remainingSeconds) {
+        String cacheKey = messageManager.getCurrentLanguage() + ':' + messageKey + ':' + bucket(remainingSeconds);
+        ActionBarUtil.PreparedMessage message = renderCache.get(cacheKey);
+        if (message == null) {
+            String timeFormatted = TimeUtil.formatTimeLocalized(remainingSeconds, messageManager);
+            message = ActionBarUtil.prepare(messageManager.getComponent(messageKey, "time", timeFormatted));
+            renderCache.put(cacheKey, message);
+        }
+        ActionBarUtil.sendActionBar(player, message);
+    }
+
+    public void forget(UUID playerUUID) {
+        lastSent.remove(playerUUID);
+    }
+
+    public void clear() {
+        renderCache.clear();
+        lastSent.clear();
+    }
+
+    private static String bucket(long seconds) {
+        if (seconds == -1) {
+            return "p";
+        }
+        if (seconds < 60) {
+            return "s" + seconds;
+        }
+        if (seconds < 86400) {
+            return "m" + seconds / 60;
+        }
+        return "h" + seconds / 3600;
+    }
+}
@@ -0,0 +1,28 @@
+package newplayerpanel.restrictions;
+
+import java.util.BitSet;
+
+final class EffectiveRestrictions {
+
+    private final long[] words;
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+
+    EffectiveRestrictions(BitSet restrictionIds, long validForMillis) {
+        this.words = restrictionIds.toLongArray();
+        this.hasDeadline = validForMillis != Long.MAX_VALUE;
+        this.deadlineNanos = hasDeadline ? System.nanoTime() + validForMillis * 1_000_000L : 0L;
+    }
+
+    boolean contains(int restrictionId) {
+        if (restrictionId < 0) {
+            return false;
+        }
+        int word = restrictionId >>> 6;
+        return word < words.length && (words[word] & (1L << restrictionId)) != 0;
+    }
+
+    boolean isStale(long nowNanos) {
+        return hasDeadline && nowNanos - deadlineNanos >= 0;
+    }
+}
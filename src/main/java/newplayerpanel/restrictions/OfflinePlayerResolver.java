@@ -0,0 +1,92 @@
+package newplayerpanel.restrictions;
+
+import newplayerpanel.util.PlayerNameIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public class OfflinePlayerResolver {
+
+    private final JavaPlugin plugin;
+    private final PlayerNameIndex nameIndex;
+    private final RestrictionsManager restrictionsManager;
+
+    public OfflinePlayerResolver(JavaPlugin plugin, PlayerNameIndex nameIndex, RestrictionsManager restrictionsManager) {
+        this.plugin = plugin;
+        this.nameIndex = nameIndex;
+        this.restrictionsManager = restrictionsManager;
+    }
+
+    public void resolve(String name, Consumer<UUID> onFound, Runnable onMissing) {
+        nameIndex.resolve(name).whenComplete((playerUUID, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Failed to resolve player " + name + ": " + error.getMessage());
+            }
+
+            if (playerUUID != null) {
+                restrictionsManager.whenResident(playerUUID, () -> complete(playerUUID, onFound, onMissing));
+            } else {
+                complete(null, onFound, onMissing);
+            }
+        });
+    }
+
+    public void resolveAll(List<String> names, BiConsumer<List<UUID>, List<String>> callback) {
+        List<CompletableFuture<UUID>> lookups = new ArrayList<>(names.size());
+        for (String name : names) {
+            lookups.add(nameIndex.resolve(name).exceptionally(error -> {
+                plugin.getLogger().warning("Failed to resolve player " + name + ": " + error.getMessage());
+                return null;
+            }));
+        }
+
+        CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            List<UUID> found = new ArrayList<>();
+            List<String> missing = new ArrayList<>();
+            for (int i = 0; i < lookups.size(); i++) {
+                UUID playerUUID = lookups.get(i).join();
+                if (playerUUID != null) {
+                    found.add(playerUUID);
+                } else {
+                    missing.add(names.get(i));
+                }
+            }
+
+            AtomicInteger remaining = new AtomicInteger(found.size() + 1);
+            Runnable loaded = () -> {
+                if (remaining.decrementAndGet() == 0 && plugin.isEnabled()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> callback.accept(found, missing));
+                }
+            };
+            for (UUID playerUUID : found) {
+                restrictionsManager.whenResident(playerUUID, loaded);
+            }
+            loaded.run();
+        });
+    }
+
+    private void complete(UUID playerUUID, Consumer<UUID> onFound, Runnable onMissing) {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (playerUUID != null) {
+                onFound.accept(playerUUID);
+            } else {
+                onMissing.run();
+            }
+        });
+    }
+
+    public String getName(UUID playerUUID, String fallback) {
+        String name = nameIndex.getName(playerUUID);
+        return name != null ? name : fallback;
+    }
+}
@@ -30,6 +30,10 @@ public class PlayerRestriction {
         return durationSeconds;
     }
     
+    public long getExpireTime() {
+        return expireTime;
+    }
+    
     public boolean isPermanent() {
         return isPermanent;
     }
@@ -0,0 +1,38 @@
+package newplayerpanel.restrictions;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.UUID;
+
+public class PlayerRestrictionExpireEvent extends Event {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final PlayerRestriction playerRestriction;
+
+    public PlayerRestrictionExpireEvent(PlayerRestriction playerRestriction) {
+        this.playerRestriction = playerRestriction;
+    }
+
+    public PlayerRestriction getPlayerRestriction() {
+        return playerRestriction;
+    }
+
+    public UUID getPlayerUUID() {
+        return playerRestriction.getPlayerUUID();
+    }
+
+    public String getRestrictionName() {
+        return playerRestriction.getRestrictionName();
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
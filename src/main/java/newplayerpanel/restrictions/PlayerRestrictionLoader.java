@@ -0,0 +1,167 @@
+package newplayerpanel.restrictions;
+
+import newplayerpanel.storage.RestrictionWriteQueue;
+import newplayerpanel.storage.StorageProvider;
+import newplayerpanel.storage.StoredPlayerRestrictions;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PlayerRestrictionLoader {
+
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final JavaPlugin plugin;
+    private final StorageProvider storageProvider;
+    private final RestrictionWriteQueue writeQueue;
+    private final long batchWindowMillis;
+    private final Object queueLock = new Object();
+    private final Map<UUID, CompletableFuture<StoredPlayerRestrictions>> pending = new LinkedHashMap<>();
+    private boolean running;
+    private Thread worker;
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public PlayerRestrictionLoader(JavaPlugin plugin, StorageProvider storageProvider, RestrictionWriteQueue writeQueue,
+                                   long batchWindowMillis) {
+        this.plugin = plugin;
+        this.storageProvider = storageProvider;
+        this.writeQueue = writeQueue;
+        this.batchWindowMillis = Math.max(0L, batchWindowMillis);
+    }
+
+    public void start() {
+        synchronized (queueLock) {
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        worker = new Thread(this::runWorker, "NewPlayerPanel-RestrictionLoader");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void shutdown() {
+        Thread thread;
+        synchronized (queueLock) {
+            running = false;
+            queueLock.notifyAll();
+            thread = worker;
+            worker = null;
+        }
+
+        if (thread != null) {
+            try {
+                thread.join(5000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        failPending(new IllegalStateException("Restriction loader stopped"));
+    }
+
+    public CompletableFuture<StoredPlayerRestrictions> request(UUID playerUUID) {
+        CompletableFuture<StoredPlayerRestrictions> future;
+        synchronized (queueLock) {
+            future = pending.get(playerUUID);
+            if (future != null) {
+                return future;
+            }
+            requested.incrementAndGet();
+            future = new CompletableFuture<>();
+            if (running) {
+                pending.put(playerUUID, future);
+                queueLock.notifyAll();
+                return future;
+            }
+        }
+
+        process(Collections.singletonMap(playerUUID, future));
+        return future;
+    }
+
+    public Map<UUID, StoredPlayerRestrictions> load(Collection<UUID> playerUUIDs) {
+        writeQueue.flush();
+        return storageProvider.loadPlayerRestrictionData(playerUUIDs);
+    }
+
+    public long getRequested() {
+        return requested.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    private void runWorker() {
+        while (true) {
+            Map<UUID, CompletableFuture<StoredPlayerRestrictions>> batch;
+            synchronized (queueLock) {
+                while (running && pending.isEmpty()) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+
+                long deadline = System.currentTimeMillis() + batchWindowMillis;
+                long remaining;
+                while (running && pending.size() < MAX_BATCH_SIZE
+                        && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        queueLock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+
+                batch = new LinkedHashMap<>();
+                Iterator<Map.Entry<UUID, CompletableFuture<StoredPlayerRestrictions>>> iterator = pending.entrySet().iterator();
+                while (iterator.hasNext() && batch.size() < MAX_BATCH_SIZE) {
+                    Map.Entry<UUID, CompletableFuture<StoredPlayerRestrictions>> entry = iterator.next();
+                    batch.put(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                }
+            }
+
+            process(batch);
+        }
+    }
+
+    private void process(Map<UUID, CompletableFuture<StoredPlayerRestrictions>> batch) {
+        try {
+            Map<UUID, StoredPlayerRestrictions> loaded = load(batch.keySet());
+            batches.incrementAndGet();
+            for (Map.Entry<UUID, CompletableFuture<StoredPlayerRestrictions>> entry : batch.entrySet()) {
+                entry.getValue().complete(loaded.getOrDefault(entry.getKey(), StoredPlayerRestrictions.EMPTY));
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to load restrictions for " + batch.size() + " players: " + e.getMessage());
+            for (CompletableFuture<StoredPlayerRestrictions> future : batch.values()) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void failPending(Exception cause) {
+        List<CompletableFuture<StoredPlayerRestrictions>> futures;
+        synchronized (queueLock) {
+            futures = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        for (CompletableFuture<StoredPlayerRestrictions> future : futures) {
+            future.completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package newplayerpanel.restrictions;
+
+import java.util.*;
+
+public final class PlayerRestrictionSnapshot {
+
+    private static final BitSet NO_OVERRIDES = new BitSet();
+
+    public static final PlayerRestrictionSnapshot EMPTY = new PlayerRestrictionSnapshot(new PlayerRestriction[0], NO_OVERRIDES);
+
+    private final PlayerRestriction[] restrictions;
+    private final List<PlayerRestriction> view;
+    private final BitSet overrides;
+
+    private PlayerRestrictionSnapshot(PlayerRestriction[] restrictions, BitSet overrides) {
+        this.restrictions = restrictions;
+        this.view = Collections.unmodifiableList(Arrays.asList(restrictions));
+        this.overrides = overrides;
+    }
+
+    public static PlayerRestrictionSnapshot of(Collection<PlayerRestriction> restrictions) {
+        return of(restrictions, NO_OVERRIDES);
+    }
+
+    public static PlayerRestrictionSnapshot of(Collection<PlayerRestriction> restrictions, BitSet overrides) {
+        if (restrictions.isEmpty() && overrides.isEmpty()) {
+            return EMPTY;
+        }
+        return new PlayerRestrictionSnapshot(restrictions.toArray(new PlayerRestriction[0]),
+            overrides.isEmpty() ? NO_OVERRIDES : (BitSet) overrides.clone());
+    }
+
+    public List<PlayerRestriction> getRestrictions() {
+        return view;
+    }
+
+    public boolean isEmpty() {
+        return restrictions.length == 0;
+    }
+
+    public int size() {
+        return restrictions.length;
+    }
+
+    public boolean isOverridden(int restrictionId) {
+        return restrictionId >= 0 && overrides.get(restrictionId);
+    }
+
+    public boolean hasOverrides() {
+        return !overrides.isEmpty();
+    }
+
+    public BitSet getOverrides() {
+        return (BitSet) overrides.clone();
+    }
+
+    public PlayerRestriction find(String restrictionName) {
+        for (PlayerRestriction pr : restrictions) {
+            if (pr.getRestrictionName().equalsIgnoreCase(restrictionName)) {
+                return pr;
+            }
+        }
+        return null;
+    }
+
+    public PlayerRestriction findActive(String restrictionName) {
+        for (PlayerRestriction pr : restrictions) {
+            if (pr.getRestrictionName().equalsIgnoreCase(restrictionName) && !pr.isExpired()) {
+                return pr;
+            }
+        }
+        return null;
+    }
+
+    public List<PlayerRestriction> getActiveRestrictions() {
+        int active = 0;
+        for (PlayerRestriction pr : restrictions) {
+            if (!pr.isExpired()) {
+                active++;
+            }
+        }
+        if (active == restrictions.length) {
+            return view;
+        }
+
+        List<PlayerRestriction> result = new ArrayList<>(active);
+        for (PlayerRestriction pr : restrictions) {
+            if (!pr.isExpired()) {
+                result.add(pr);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    PlayerRestrictionSnapshot with(PlayerRestriction restriction) {
+        List<PlayerRestriction> next = new ArrayList<>(restrictions.length + 1);
+        for (PlayerRestriction pr : restrictions) {
+            if (!pr.getRestrictionName().equalsIgnoreCase(restriction.getRestrictionName())) {
+                next.add(pr);
+            }
+        }
+        next.add(restriction);
+        return of(next, overrides);
+    }
+
+    PlayerRestrictionSnapshot without(String restrictionName) {
+        List<PlayerRestriction> next = new ArrayList<>(restrictions.length);
+        for (PlayerRestriction pr : restrictions) {
+            if (!pr.getRestrictionName().equalsIgnoreCase(restrictionName)) {
+                next.add(pr);
+            }
+        }
+        return next.size() == restrictions.length ? this : of(next, overrides);
+    }
+
+    PlayerRestrictionSnapshot without(PlayerRestriction restriction) {
+        List<PlayerRestriction> next = new ArrayList<>(restrictions.length);
+        for (PlayerRestriction pr : restrictions) {
+            if (pr != restriction) {
+                next.add(pr);
+            }
+        }
+        return next.size() == restrictions.length ? this : of(next, overrides);
+    }
+
+    PlayerRestrictionSnapshot withOverride(int restrictionId) {
+        if (restrictionId < 0 || overrides.get(restrictionId)) {
+            return this;
+        }
+        BitSet next = (BitSet) overrides.clone();
+        next.set(restrictionId);
+        return of(view, next);
+    }
+
+    PlayerRestrictionSnapshot withoutOverride(int restrictionId) {
+        if (restrictionId < 0 || !overrides.get(restrictionId)) {
+            return this;
+        }
+        BitSet next = (BitSet) overrides.clone();
+        next.clear(restrictionId);
+        return of(view, next);
+    }
+
+    PlayerRestrictionSnapshot withoutOverrides() {
+        return overrides.isEmpty() ? this : of(view, NO_OVERRIDES);
+    }
+}
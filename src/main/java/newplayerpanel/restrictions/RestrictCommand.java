@@ -1,6 +1,7 @@
 package newplayerpanel.restrictions;
 
 import newplayerpanel.messages.MessageManager;
+import newplayerpanel.spawnprotect.SpawnProtectManager;
 import newplayerpanel.util.ActionBarUtil;
 import newplayerpanel.util.TimeUtil;
 import org.bukkit.Bukkit;
@@ -9,19 +10,28 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class RestrictCommand implements CommandExecutor, TabCompleter {
     
+    private final JavaPlugin plugin;
     private final RestrictionsManager restrictionsManager;
     private final MessageManager messageManager;
+    private final SpawnProtectManager spawnProtectManager;
+    private final OfflinePlayerResolver offlinePlayerResolver;
     
-    public RestrictCommand(RestrictionsManager restrictionsManager, MessageManager messageManager) {
+    public RestrictCommand(JavaPlugin plugin, RestrictionsManager restrictionsManager, MessageManager messageManager,
+                           SpawnProtectManager spawnProtectManager, OfflinePlayerResolver offlinePlayerResolver) {
+        this.plugin = plugin;
         this.restrictionsManager = restrictionsManager;
         this.messageManager = messageManager;
+        this.spawnProtectManager = spawnProtectManager;
+        this.offlinePlayerResolver = offlinePlayerResolver;
     }
     
     @Override
@@ -34,14 +44,11 @@ public class RestrictCommand implements CommandExecutor, TabCompleter {
         if (args.length < 3) {
             sender.sendMessage(messageManager.get("restrictions-usage"));
             sender.sendMessage(messageManager.get("restrictions-usage-time"));
+            sender.sendMessage(messageManager.get("restrictions-usage-targets"));
             return true;
         }
         
-        Player targetPlayer = Bukkit.getPlayer(args[0]);
-        if (targetPlayer == null) {
-            sender.sendMessage(messageManager.get("player-not-found"));
-            return true;
-        }
+        RestrictionTargets targets = RestrictionTargets.resolve(args[0], spawnProtectManager);
         
         Restriction restriction = restrictionsManager.getRestrictionByName(args[1]);
         if (restriction == null) {
@@ -55,22 +62,94 @@ public class RestrictCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        UUID playerUUID = targetPlayer.getUniqueId();
         String restrictionName = restriction.getName();
         
+        if (targets.isBulk()) {
+            if (targets.needsLookup()) {
+                String target = args[0];
+                offlinePlayerResolver.resolveAll(targets.getUnknown(), (found, missing) ->
+                    restrictMany(sender, target, targets.withResolved(found, missing), restrictionName, durationSeconds));
+                return true;
+            }
+            return restrictMany(sender, args[0], targets, restrictionName, durationSeconds);
+        }
+        
+        if (targets.getPlayers().isEmpty()) {
+            String targetName = args[0];
+            offlinePlayerResolver.resolve(targetName,
+                playerUUID -> restrictOne(sender, playerUUID, offlinePlayerResolver.getName(playerUUID, targetName),
+                    restrictionName, durationSeconds),
+                () -> sender.sendMessage(messageManager.get("player-not-found")));
+            return true;
+        }
+        
+        Player targetPlayer = targets.getPlayers().get(0);
+        restrictOne(sender, targetPlayer.getUniqueId(), targetPlayer.getName(), restrictionName, durationSeconds);
+        return true;
+    }
+    
+    private void restrictOne(CommandSender sender, UUID playerUUID, String playerName, String restrictionName, long durationSeconds) {
+        Player targetPlayer = Bukkit.getPlayer(playerUUID);
+        
         if (durationSeconds == 0) {
             restrictionsManager.removePlayerRestriction(playerUUID, restrictionName);
-            sender.sendMessage(messageManager.get("restrictions-removed", "player", targetPlayer.getName()));
-            ActionBarUtil.sendActionBar(targetPlayer, 
-                messageManager.getComponent("restrictions-notify-removed", "restriction", restrictionName));
+            sender.sendMessage(messageManager.get("restrictions-removed", "player", playerName));
+            if (targetPlayer != null) {
+                ActionBarUtil.sendActionBar(targetPlayer, 
+                    messageManager.getComponent("restrictions-notify-removed", "restriction", restrictionName));
+            }
         } else {
             restrictionsManager.addPlayerRestriction(playerUUID, restrictionName, durationSeconds);
             String timeStr = TimeUtil.formatTimeLocalized(durationSeconds, messageManager);
             sender.sendMessage(messageManager.get("restrictions-applied", "time", timeStr));
-            ActionBarUtil.sendActionBar(targetPlayer, 
-                messageManager.getComponent("restrictions-notify-applied", "restriction", restrictionName, "time", timeStr));
+            if (targetPlayer != null) {
+                ActionBarUtil.sendActionBar(targetPlayer, 
+                    messageManager.getComponent("restrictions-notify-applied", "restriction", restrictionName, "time", timeStr));
+            }
+        }
+    }
+    
+    private boolean restrictMany(CommandSender sender, String target, RestrictionTargets targets,
+                                 String restrictionName, long durationSeconds) {
+        if (!targets.getUnknown().isEmpty()) {
+            sender.sendMessage(messageManager.get("restrictions-bulk-unknown", "players", String.join(", ", targets.getUnknown())));
+        }
+        if (targets.getPlayerUUIDs().isEmpty()) {
+            sender.sendMessage(messageManager.get("restrictions-bulk-no-targets", "target", target));
+            return true;
+        }
+        
+        long start = System.nanoTime();
+        int count = targets.getPlayerUUIDs().size();
+        CompletableFuture<Boolean> persisted;
+        String timeStr = TimeUtil.formatTimeLocalized(durationSeconds, messageManager);
+        
+        if (durationSeconds == 0) {
+            persisted = restrictionsManager.removePlayerRestrictions(targets.getPlayerUUIDs(), restrictionName);
+            for (Player player : targets.getPlayers()) {
+                ActionBarUtil.sendActionBar(player, 
+                    messageManager.getComponent("restrictions-notify-removed", "restriction", restrictionName));
+            }
+        } else {
+            persisted = restrictionsManager.addPlayerRestrictions(targets.getPlayerUUIDs(), restrictionName, durationSeconds);
+            for (Player player : targets.getPlayers()) {
+                ActionBarUtil.sendActionBar(player, 
+                    messageManager.getComponent("restrictions-notify-applied", "restriction", restrictionName, "time", timeStr));
+            }
         }
         
+        persisted.thenAccept(success -> Bukkit.getScheduler().runTask(plugin, () -> {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+            if (!success) {
+                sender.sendMessage(messageManager.get("restrictions-bulk-failed", "count", count));
+            } else if (durationSeconds == 0) {
+                sender.sendMessage(messageManager.get("restrictions-bulk-removed",
+                    "restriction", restrictionName, "count", count, "ms", elapsedMillis));
+            } else {
+                sender.sendMessage(messageManager.get("restrictions-bulk-applied",
+                    "restriction", restrictionName, "count", count, "time", timeStr, "ms", elapsedMillis));
+            }
+        }));
         return true;
     }
     
@@ -79,11 +158,7 @@ public class RestrictCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
         
         if (args.length == 1) {
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                if (player.getName().toLowerCase().startsWith(args[0].toLowerCase())) {
-                    completions.add(player.getName());
-                }
-            }
+            completions.addAll(RestrictionTargets.complete(args[0], spawnProtectManager));
         } else if (args.length == 2) {
             for (Restriction restriction : restrictionsManager.getRestrictions()) {
                 if (restriction.getName().toLowerCase().startsWith(args[1].toLowerCase())) {
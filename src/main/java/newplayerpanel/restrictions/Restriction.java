@@ -1,5 +1,10 @@
 package newplayerpanel.restrictions;
 
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.entity.EntityType;
+
 import java.util.*;
 
 public class Restriction {
@@ -10,20 +15,81 @@ public class Restriction {
     private final List<String> items;
     private final List<String> entities;
     private final List<String> commands;
+    private final List<String> zones;
     private final int timeSeconds;
     private final boolean isDefault;
+    private final Set<RestrictionAction> actionSet;
+    private final Set<Material> materials;
+    private final Set<EntityType> entityTypes;
+    private final List<String> unresolved;
+    private int id = -1;
     
     public Restriction(String name, RestrictionType type, Set<String> actions,
                       List<String> items, List<String> entities, List<String> commands,
                       int timeSeconds, boolean isDefault) {
+        this(name, type, actions, items, entities, commands, null, timeSeconds, isDefault);
+    }
+    
+    public Restriction(String name, RestrictionType type, Set<String> actions,
+                      List<String> items, List<String> entities, List<String> commands, List<String> zones,
+                      int timeSeconds, boolean isDefault) {
         this.name = name;
         this.type = type;
-        this.actions = actions;
-        this.items = items != null ? items : new ArrayList<>();
-        this.entities = entities != null ? entities : new ArrayList<>();
-        this.commands = commands != null ? commands : new ArrayList<>();
+        this.actions = Collections.unmodifiableSet(actions != null ? new LinkedHashSet<>(actions) : new LinkedHashSet<>());
+        this.items = Collections.unmodifiableList(items != null ? new ArrayList<>(items) : new ArrayList<>());
+        this.entities = Collections.unmodifiableList(entities != null ? new ArrayList<>(entities) : new ArrayList<>());
+        this.commands = Collections.unmodifiableList(commands != null ? new ArrayList<>(commands) : new ArrayList<>());
+        this.zones = Collections.unmodifiableList(zones != null ? new ArrayList<>(zones) : new ArrayList<>());
         this.timeSeconds = timeSeconds;
         this.isDefault = isDefault;
+        
+        List<String> unresolvedTargets = new ArrayList<>();
+        EnumSet<RestrictionAction> compiledActions = EnumSet.noneOf(RestrictionAction.class);
+        for (String action : this.actions) {
+            RestrictionAction restrictionAction = RestrictionAction.fromString(action);
+            if (restrictionAction != null) {
+                compiledActions.add(restrictionAction);
+            } else {
+                unresolvedTargets.add("action '" + action + "'");
+            }
+        }
+        
+        EnumSet<Material> compiledMaterials = EnumSet.noneOf(Material.class);
+        if (type == RestrictionType.ITEM || type == RestrictionType.EQUIPMENT) {
+            for (String item : this.items) {
+                Material material = resolve(Registry.MATERIAL, item);
+                if (material != null) {
+                    compiledMaterials.add(material);
+                } else {
+                    unresolvedTargets.add("item '" + item + "'");
+                }
+            }
+        }
+        
+        EnumSet<EntityType> compiledEntityTypes = EnumSet.noneOf(EntityType.class);
+        if (type == RestrictionType.ENTITY) {
+            for (String entity : this.entities) {
+                EntityType entityType = resolve(Registry.ENTITY_TYPE, entity);
+                if (entityType != null) {
+                    compiledEntityTypes.add(entityType);
+                } else {
+                    unresolvedTargets.add("entity '" + entity + "'");
+                }
+            }
+        }
+        
+        this.actionSet = Collections.unmodifiableSet(compiledActions);
+        this.materials = Collections.unmodifiableSet(compiledMaterials);
+        this.entityTypes = Collections.unmodifiableSet(compiledEntityTypes);
+        this.unresolved = Collections.unmodifiableList(unresolvedTargets);
+    }
+    
+    private static <T extends org.bukkit.Keyed> T resolve(Registry<T> registry, String value) {
+        if (value == null || registry == null) {
+            return null;
+        }
+        NamespacedKey key = NamespacedKey.fromString(value.trim().toLowerCase(Locale.ROOT));
+        return key != null ? registry.get(key) : null;
     }
     
     public static Restriction fromMap(Map<String, Object> map) {
@@ -55,6 +121,22 @@ public class Restriction {
         @SuppressWarnings("unchecked")
         List<String> commands = (List<String>) map.get("command");
         
+        List<String> zones = new ArrayList<>();
+        Object zonesObj = map.get("zones");
+        if (zonesObj instanceof String) {
+            for (String zone : ((String) zonesObj).split(",")) {
+                if (!zone.trim().isEmpty()) {
+                    zones.add(zone.trim());
+                }
+            }
+        } else if (zonesObj instanceof List) {
+            for (Object zone : (List<?>) zonesObj) {
+                if (zone != null && !zone.toString().trim().isEmpty()) {
+                    zones.add(zone.toString().trim());
+                }
+            }
+        }
+        
         int timeSeconds = -1;
         Object timeObj = map.get("time");
         if (timeObj != null) {
@@ -69,6 +151,18 @@ public class Restriction {
             }
         }
         
+        int id = -1;
+        Object idObj = map.get("id");
+        if (idObj instanceof Number) {
+            id = ((Number) idObj).intValue();
+        } else if (idObj instanceof String) {
+            try {
+                id = Integer.parseInt((String) idObj);
+            } catch (NumberFormatException e) {
+                id = -1;
+            }
+        }
+        
         boolean isDefault = false;
         Object defaultObj = map.get("default");
         if (defaultObj != null) {
@@ -79,13 +173,16 @@ public class Restriction {
             }
         }
         
-        return new Restriction(name, type, actions, items, entities, commands, timeSeconds, isDefault);
+        Restriction restriction = new Restriction(name, type, actions, items, entities, commands, zones, timeSeconds, isDefault);
+        restriction.setId(id);
+        return restriction;
     }
     
     public Map<String, Object> toMap() {
         Map<String, Object> map = new LinkedHashMap<>();
         
         map.put("name", name);
+        map.put("id", id);
         map.put("type", type.name());
         
         List<String> actionsList = new ArrayList<>(actions);
@@ -117,6 +214,12 @@ public class Restriction {
                 break;
         }
         
+        if (!zones.isEmpty()) {
+            List<String> sortedZones = new ArrayList<>(zones);
+            sortedZones.sort(String::compareToIgnoreCase);
+            map.put("zones", sortedZones);
+        }
+        
         map.put("time", timeSeconds);
         map.put("default", isDefault);
         
@@ -127,24 +230,60 @@ public class Restriction {
         return name;
     }
     
+    public int getId() {
+        return id;
+    }
+    
+    void setId(int id) {
+        this.id = id;
+    }
+    
     public RestrictionType getType() {
         return type;
     }
     
     public Set<String> getActions() {
-        return new HashSet<>(actions);
+        return actions;
     }
     
     public List<String> getItems() {
-        return new ArrayList<>(items);
+        return items;
     }
     
     public List<String> getEntities() {
-        return new ArrayList<>(entities);
+        return entities;
     }
     
     public List<String> getCommands() {
-        return new ArrayList<>(commands);
+        return commands;
+    }
+    
+    public List<String> getZones() {
+        return zones;
+    }
+    
+    public boolean isZoned() {
+        return !zones.isEmpty();
+    }
+    
+    public Set<RestrictionAction> getActionSet() {
+        return actionSet;
+    }
+    
+    public boolean hasAction(RestrictionAction action) {
+        return actionSet.contains(action);
+    }
+    
+    public Set<Material> getMaterials() {
+        return materials;
+    }
+    
+    public Set<EntityType> getEntityTypes() {
+        return entityTypes;
+    }
+    
+    public List<String> getUnresolvedTargets() {
+        return unresolved;
     }
     
     public int getTimeSeconds() {
@@ -0,0 +1,23 @@
+package newplayerpanel.restrictions;
+
+import java.util.Locale;
+
+public enum RestrictionAction {
+    DAMAGE,
+    USE,
+    DROP,
+    PICKUP,
+    EQUIP,
+    EXECUTE;
+
+    public static RestrictionAction fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
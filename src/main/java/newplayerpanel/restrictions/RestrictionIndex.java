@@ -0,0 +1,156 @@
+package newplayerpanel.restrictions;
+
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+public final class RestrictionIndex {
+
+    private static final Restriction[] NONE = new Restriction[0];
+    private static final Set<RestrictionAction> ITEM_ACTIONS = Collections.unmodifiableSet(EnumSet.of(
+        RestrictionAction.USE, RestrictionAction.DROP, RestrictionAction.PICKUP, RestrictionAction.EQUIP));
+
+    private final Map<RestrictionAction, Map<Material, Restriction[]>> byMaterial;
+    private final Map<EntityType, Restriction[]> damageByEntity;
+    private final Map<String, Restriction[]> executeByCommand;
+
+    private RestrictionIndex(Builder builder) {
+        Map<RestrictionAction, Map<Material, Restriction[]>> materials = new EnumMap<>(RestrictionAction.class);
+        for (Map.Entry<RestrictionAction, Map<Material, List<Restriction>>> entry : builder.materials.entrySet()) {
+            materials.put(entry.getKey(), freeze(entry.getValue(), new EnumMap<>(Material.class)));
+        }
+        this.byMaterial = materials;
+        this.damageByEntity = freeze(builder.damage, new EnumMap<>(EntityType.class));
+        this.executeByCommand = freeze(builder.execute, new HashMap<>());
+    }
+
+    public static RestrictionIndex empty() {
+        return new RestrictionIndex(new Builder(null));
+    }
+
+    public static RestrictionIndex build(List<Restriction> restrictions, Logger logger) {
+        Builder builder = new Builder(logger);
+        for (Restriction restriction : restrictions) {
+            builder.add(restriction);
+        }
+        return new RestrictionIndex(builder);
+    }
+
+    public Restriction[] getRestrictions(RestrictionAction action, Material material) {
+        Map<Material, Restriction[]> restrictions = byMaterial.get(action);
+        return restrictions != null ? restrictions.getOrDefault(material, NONE) : NONE;
+    }
+
+    public Restriction[] getUseRestrictions(Material material) {
+        return getRestrictions(RestrictionAction.USE, material);
+    }
+
+    public Restriction[] getDropRestrictions(Material material) {
+        return getRestrictions(RestrictionAction.DROP, material);
+    }
+
+    public Restriction[] getPickupRestrictions(Material material) {
+        return getRestrictions(RestrictionAction.PICKUP, material);
+    }
+
+    public Restriction[] getEquipRestrictions(Material material) {
+        return getRestrictions(RestrictionAction.EQUIP, material);
+    }
+
+    public Restriction[] getDamageRestrictions(EntityType entityType) {
+        return damageByEntity.getOrDefault(entityType, NONE);
+    }
+
+    public Restriction[] getCommandRestrictions(String command) {
+        return executeByCommand.getOrDefault(command, NONE);
+    }
+
+    Map<String, Restriction[]> getCommandRestrictionMap() {
+        return executeByCommand;
+    }
+
+    public boolean hasEquipRestrictions() {
+        return byMaterial.containsKey(RestrictionAction.EQUIP);
+    }
+
+    static String normalizeCommand(String command) {
+        String normalized = command.trim().toLowerCase(Locale.ROOT);
+        if (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        return normalized;
+    }
+
+    private static <K> Map<K, Restriction[]> freeze(Map<K, List<Restriction>> source, Map<K, Restriction[]> target) {
+        for (Map.Entry<K, List<Restriction>> entry : source.entrySet()) {
+            target.put(entry.getKey(), entry.getValue().toArray(new Restriction[0]));
+        }
+        return target.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(target);
+    }
+
+    private static final class Builder {
+
+        private final Logger logger;
+        private final Map<RestrictionAction, Map<Material, List<Restriction>>> materials = new EnumMap<>(RestrictionAction.class);
+        private final Map<EntityType, List<Restriction>> damage = new EnumMap<>(EntityType.class);
+        private final Map<String, List<Restriction>> execute = new HashMap<>();
+
+        private Builder(Logger logger) {
+            this.logger = logger;
+        }
+
+        private void add(Restriction restriction) {
+            for (String unresolved : restriction.getUnresolvedTargets()) {
+                warn("Unknown " + unresolved + " in restriction '" + restriction.getName() + "'");
+            }
+
+            switch (restriction.getType()) {
+                case ITEM:
+                    for (RestrictionAction action : restriction.getActionSet()) {
+                        if (ITEM_ACTIONS.contains(action)) {
+                            for (Material material : restriction.getMaterials()) {
+                                put(materials.computeIfAbsent(action, k -> new EnumMap<>(Material.class)), material, restriction);
+                            }
+                        }
+                    }
+                    break;
+                case EQUIPMENT:
+                    if (restriction.hasAction(RestrictionAction.EQUIP)) {
+                        for (Material material : restriction.getMaterials()) {
+                            put(materials.computeIfAbsent(RestrictionAction.EQUIP, k -> new EnumMap<>(Material.class)), material, restriction);
+                        }
+                    }
+                    break;
+                case ENTITY:
+                    if (restriction.hasAction(RestrictionAction.DAMAGE)) {
+                        for (EntityType entityType : restriction.getEntityTypes()) {
+                            put(damage, entityType, restriction);
+                        }
+                    }
+                    break;
+                case COMMAND:
+                    if (restriction.hasAction(RestrictionAction.EXECUTE)) {
+                        for (String command : restriction.getCommands()) {
+                            put(execute, normalizeCommand(command), restriction);
+                        }
+                    }
+                    break;
+            }
+        }
+
+        private <K> void put(Map<K, List<Restriction>> map, K key, Restriction restriction) {
+            List<Restriction> list = map.computeIfAbsent(key, k -> new ArrayList<>(1));
+            if (!list.contains(restriction)) {
+                list.add(restriction);
+            }
+        }
+
+        private void warn(String message) {
+            if (logger != null) {
+                logger.warning(message);
+            }
+        }
+    }
+}
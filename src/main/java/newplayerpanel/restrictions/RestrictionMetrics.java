@@ -0,0 +1,302 @@
+package newplayerpanel.restrictions;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RestrictionMetrics {
+
+    private final JavaPlugin plugin;
+    private final File dumpFile;
+    private final Map<Integer, RestrictionCounters> restrictionCounters = new ConcurrentHashMap<>();
+    private final EnumMap<RestrictionAction, EventCounters> eventCounters = new EnumMap<>(RestrictionAction.class);
+    private volatile boolean enabled;
+    private volatile long since = System.currentTimeMillis();
+    private int dumpTaskId = -1;
+
+    public RestrictionMetrics(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.dumpFile = new File(plugin.getDataFolder(), "restriction-metrics.log");
+        for (RestrictionAction action : RestrictionAction.values()) {
+            eventCounters.put(action, new EventCounters());
+        }
+    }
+
+    public void reload() {
+        enabled = plugin.getConfig().getBoolean("restrictions.metrics.enabled", true);
+
+        if (dumpTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(dumpTaskId);
+            dumpTaskId = -1;
+        }
+        long intervalMinutes = plugin.getConfig().getLong("restrictions.metrics.dump-interval-minutes", 0L);
+        if (enabled && intervalMinutes > 0) {
+            long ticks = intervalMinutes * 60L * 20L;
+            dumpTaskId = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::dump, ticks, ticks).getTaskId();
+        }
+    }
+
+    public void shutdown() {
+        if (dumpTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(dumpTaskId);
+            dumpTaskId = -1;
+        }
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void recordEvent(RestrictionAction action, long start) {
+        if (start != 0L) {
+            EventCounters counters = eventCounters.get(action);
+            counters.events.increment();
+            counters.nanos.add(System.nanoTime() - start);
+        }
+    }
+
+    public void recordCheck(Restriction restriction, RestrictionAction action, boolean denied, long start) {
+        if (start == 0L) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        RestrictionCounters restrictionCounter = restrictionCounters.computeIfAbsent(restriction.getId(), id -> new RestrictionCounters());
+        restrictionCounter.name = restriction.getName();
+        CheckCounters counters = restrictionCounter.actions.get(action);
+        counters.checks.increment();
+        counters.nanos.add(elapsed);
+        if (denied) {
+            counters.denials.increment();
+        }
+    }
+
+    public void reset() {
+        restrictionCounters.clear();
+        for (EventCounters counters : eventCounters.values()) {
+            counters.events.reset();
+            counters.nanos.reset();
+        }
+        since = System.currentTimeMillis();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public List<EventStats> getEventStats() {
+        List<EventStats> stats = new ArrayList<>();
+        for (Map.Entry<RestrictionAction, EventCounters> entry : eventCounters.entrySet()) {
+            long events = entry.getValue().events.sum();
+            if (events > 0) {
+                stats.add(new EventStats(entry.getKey(), events, entry.getValue().nanos.sum()));
+            }
+        }
+        stats.sort((a, b) -> Long.compare(b.getNanos(), a.getNanos()));
+        return stats;
+    }
+
+    public List<RestrictionStats> getRestrictionStats() {
+        List<RestrictionStats> stats = new ArrayList<>();
+        for (RestrictionCounters counters : restrictionCounters.values()) {
+            List<ActionStats> actions = new ArrayList<>();
+            for (Map.Entry<RestrictionAction, CheckCounters> entry : counters.actions.entrySet()) {
+                long checks = entry.getValue().checks.sum();
+                if (checks > 0) {
+                    actions.add(new ActionStats(entry.getKey(), checks, entry.getValue().denials.sum(), entry.getValue().nanos.sum()));
+                }
+            }
+            if (!actions.isEmpty()) {
+                actions.sort((a, b) -> Long.compare(b.getNanos(), a.getNanos()));
+                stats.add(new RestrictionStats(counters.name, actions));
+            }
+        }
+        stats.sort((a, b) -> Long.compare(b.getNanos(), a.getNanos()));
+        return stats;
+    }
+
+    public void dump() {
+        StringBuilder content = new StringBuilder();
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        content.append("[").append(format.format(new Date())).append("] since ")
+            .append(format.format(new Date(since))).append("\n");
+        for (EventStats stats : getEventStats()) {
+            content.append("  event ").append(stats.getAction().name())
+                .append(" count=").append(stats.getEvents())
+                .append(" total_ns=").append(stats.getNanos())
+                .append(" avg_ns=").append(stats.getAverageNanos()).append("\n");
+        }
+        for (RestrictionStats stats : getRestrictionStats()) {
+            content.append("  restriction ").append(stats.getName())
+                .append(" checks=").append(stats.getChecks())
+                .append(" denials=").append(stats.getDenials())
+                .append(" total_ns=").append(stats.getNanos())
+                .append(" avg_ns=").append(stats.getAverageNanos()).append("\n");
+            for (ActionStats action : stats.getActions()) {
+                content.append("    action ").append(action.getAction().name())
+                    .append(" checks=").append(action.getChecks())
+                    .append(" denials=").append(action.getDenials())
+                    .append(" total_ns=").append(action.getNanos())
+                    .append(" avg_ns=").append(action.getAverageNanos()).append("\n");
+            }
+        }
+
+        try {
+            Files.writeString(dumpFile.toPath(), content.toString(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write " + dumpFile.getName() + ": " + e.getMessage());
+        }
+    }
+
+    public File getDumpFile() {
+        return dumpFile;
+    }
+
+    private static final class RestrictionCounters {
+        private final EnumMap<RestrictionAction, CheckCounters> actions = new EnumMap<>(RestrictionAction.class);
+        private volatile String name;
+
+        private RestrictionCounters() {
+            for (RestrictionAction action : RestrictionAction.values()) {
+                actions.put(action, new CheckCounters());
+            }
+        }
+    }
+
+    private static final class CheckCounters {
+        private final LongAdder checks = new LongAdder();
+        private final LongAdder denials = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+
+    private static final class EventCounters {
+        private final LongAdder events = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+
+    public static final class EventStats {
+
+        private final RestrictionAction action;
+        private final long events;
+        private final long nanos;
+
+        private EventStats(RestrictionAction action, long events, long nanos) {
+            this.action = action;
+            this.events = events;
+            this.nanos = nanos;
+        }
+
+        public RestrictionAction getAction() {
+            return action;
+        }
+
+        public long getEvents() {
+            return events;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getAverageNanos() {
+            return events > 0 ? nanos / events : 0L;
+        }
+    }
+
+    public static final class RestrictionStats {
+
+        private final String name;
+        private final List<ActionStats> actions;
+        private final long checks;
+        private final long denials;
+        private final long nanos;
+
+        private RestrictionStats(String name, List<ActionStats> actions) {
+            this.name = name;
+            this.actions = Collections.unmodifiableList(actions);
+            long checks = 0L;
+            long denials = 0L;
+            long nanos = 0L;
+            for (ActionStats action : actions) {
+                checks += action.getChecks();
+                denials += action.getDenials();
+                nanos += action.getNanos();
+            }
+            this.checks = checks;
+            this.denials = denials;
+            this.nanos = nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<ActionStats> getActions() {
+            return actions;
+        }
+
+        public long getChecks() {
+            return checks;
+        }
+
+        public long getDenials() {
+            return denials;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getAverageNanos() {
+            return checks > 0 ? nanos / checks : 0L;
+        }
+    }
+
+    public static final class ActionStats {
+
+        private final RestrictionAction action;
+        private final long checks;
+        private final long denials;
+        private final long nanos;
+
+        private ActionStats(RestrictionAction action, long checks, long denials, long nanos) {
+            this.action = action;
+            this.checks = checks;
+            this.denials = denials;
+            this.nanos = nanos;
+        }
+
+        public RestrictionAction getAction() {
+            return action;
+        }
+
+        public long getChecks() {
+            return checks;
+        }
+
+        public long getDenials() {
+            return denials;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getAverageNanos() {
+            return checks > 0 ? nanos / checks : 0L;
+        }
+    }
+}
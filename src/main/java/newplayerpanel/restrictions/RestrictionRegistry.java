@@ -0,0 +1,218 @@
+package newplayerpanel.restrictions;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Logger;
+
+public final class RestrictionRegistry {
+
+    private static final RestrictionRegistry EMPTY = new RestrictionRegistry(
+        Collections.emptyList(), 0, false, 0, RestrictionIndex.empty());
+
+    private final List<Restriction> restrictions;
+    private final Map<String, Restriction> byName;
+    private final Map<Integer, Restriction> byId;
+    private final BitSet ids;
+    private final int nextId;
+    private final boolean assignedIds;
+    private final int invalidEntries;
+    private final RestrictionIndex index;
+
+    private RestrictionRegistry(List<Restriction> restrictions, int nextId, boolean assignedIds, int invalidEntries,
+                                RestrictionIndex index) {
+        this.restrictions = Collections.unmodifiableList(new ArrayList<>(restrictions));
+        this.nextId = nextId;
+        this.assignedIds = assignedIds;
+        this.invalidEntries = invalidEntries;
+        this.index = index;
+
+        Map<String, Restriction> names = new HashMap<>();
+        Map<Integer, Restriction> restrictionIds = new HashMap<>();
+        BitSet idSet = new BitSet();
+        for (Restriction restriction : this.restrictions) {
+            names.putIfAbsent(restriction.getName().toLowerCase(Locale.ROOT), restriction);
+            restrictionIds.put(restriction.getId(), restriction);
+            idSet.set(restriction.getId());
+        }
+        this.byName = Collections.unmodifiableMap(names);
+        this.byId = Collections.unmodifiableMap(restrictionIds);
+        this.ids = idSet;
+    }
+
+    public static RestrictionRegistry empty() {
+        return EMPTY;
+    }
+
+    public static RestrictionRegistry load(File file, Logger logger) throws IOException, InvalidConfigurationException {
+        YamlConfiguration config = new YamlConfiguration();
+        config.load(file);
+        List<Restriction> restrictions = new ArrayList<>();
+        int invalid = 0;
+
+        if (!config.isList("restrictions")) {
+            throw new InvalidConfigurationException("missing 'restrictions' list");
+        }
+        for (Object obj : config.getList("restrictions")) {
+            if (obj instanceof java.util.Map) {
+                @SuppressWarnings("unchecked")
+                java.util.Map<String, Object> map = (java.util.Map<String, Object>) obj;
+                try {
+                    restrictions.add(Restriction.fromMap(map));
+                } catch (Exception e) {
+                    invalid++;
+                    logger.warning("Error loading restriction: " + e.getMessage());
+                }
+            } else {
+                invalid++;
+                logger.warning("Ignoring malformed restriction entry: " + obj);
+            }
+        }
+
+        int nextId = Math.max(config.getInt("next-id", 0), 0);
+        Set<Integer> usedIds = new HashSet<>();
+        for (Restriction restriction : restrictions) {
+            int id = restriction.getId();
+            if (id >= 0 && usedIds.add(id)) {
+                nextId = Math.max(nextId, id + 1);
+            } else {
+                if (id >= 0) {
+                    logger.warning("Duplicate restriction id " + id + " for '" + restriction.getName() + "', assigning a new one.");
+                }
+                restriction.setId(-1);
+            }
+        }
+
+        boolean assigned = false;
+        for (Restriction restriction : restrictions) {
+            if (restriction.getId() < 0) {
+                restriction.setId(nextId++);
+                assigned = true;
+            }
+        }
+
+        return new RestrictionRegistry(restrictions, nextId, assigned, invalid, RestrictionIndex.build(restrictions, logger));
+    }
+
+    public RestrictionRegistry with(Restriction restriction, Logger logger) {
+        restriction.setId(nextId);
+        List<Restriction> next = new ArrayList<>(restrictions);
+        next.add(restriction);
+        return new RestrictionRegistry(next, nextId + 1, false, 0, RestrictionIndex.build(next, logger));
+    }
+
+    public Diff diff(RestrictionRegistry previous) {
+        List<Restriction> added = new ArrayList<>();
+        List<Restriction> changed = new ArrayList<>();
+        List<Restriction> removed = new ArrayList<>();
+        Set<String> staleNames = new HashSet<>();
+        boolean defaultsChanged = false;
+
+        for (Restriction restriction : restrictions) {
+            Restriction old = previous.byId.get(restriction.getId());
+            if (old == null) {
+                added.add(restriction);
+                defaultsChanged |= restriction.isDefault();
+            } else if (!old.toMap().equals(restriction.toMap())) {
+                changed.add(restriction);
+                if (!old.getName().equalsIgnoreCase(restriction.getName())) {
+                    staleNames.add(old.getName().toLowerCase(Locale.ROOT));
+                }
+                defaultsChanged |= old.isDefault() != restriction.isDefault()
+                    || (restriction.isDefault() && old.getTimeSeconds() != restriction.getTimeSeconds());
+            }
+        }
+
+        for (Restriction old : previous.restrictions) {
+            if (!byId.containsKey(old.getId())) {
+                removed.add(old);
+                staleNames.add(old.getName().toLowerCase(Locale.ROOT));
+                defaultsChanged |= old.isDefault();
+            }
+        }
+
+        staleNames.removeAll(byName.keySet());
+        return new Diff(added, changed, removed, staleNames, defaultsChanged);
+    }
+
+    public List<Restriction> getRestrictions() {
+        return restrictions;
+    }
+
+    public Restriction get(String name) {
+        return byName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public boolean contains(String name) {
+        return byName.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    public BitSet getIds() {
+        return (BitSet) ids.clone();
+    }
+
+    public int getNextId() {
+        return nextId;
+    }
+
+    public boolean hasAssignedIds() {
+        return assignedIds;
+    }
+
+    public RestrictionIndex getIndex() {
+        return index;
+    }
+
+    public int getInvalidEntries() {
+        return invalidEntries;
+    }
+
+    public int size() {
+        return restrictions.size();
+    }
+
+    public static final class Diff {
+
+        private final List<Restriction> added;
+        private final List<Restriction> changed;
+        private final List<Restriction> removed;
+        private final Set<String> staleNames;
+        private final boolean defaultsChanged;
+
+        private Diff(List<Restriction> added, List<Restriction> changed, List<Restriction> removed,
+                     Set<String> staleNames, boolean defaultsChanged) {
+            this.added = Collections.unmodifiableList(added);
+            this.changed = Collections.unmodifiableList(changed);
+            this.removed = Collections.unmodifiableList(removed);
+            this.staleNames = Collections.unmodifiableSet(staleNames);
+            this.defaultsChanged = defaultsChanged;
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+
+        public List<Restriction> getAdded() {
+            return added;
+        }
+
+        public List<Restriction> getChanged() {
+            return changed;
+        }
+
+        public List<Restriction> getRemoved() {
+            return removed;
+        }
+
+        public Set<String> getStaleNames() {
+            return staleNames;
+        }
+
+        public boolean isDefaultsChanged() {
+            return defaultsChanged;
+        }
+    }
+}
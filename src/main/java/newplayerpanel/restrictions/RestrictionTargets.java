@@ -0,0 +1,150 @@
+package newplayerpanel.restrictions;
+
+import newplayerpanel.spawnprotect.SpawnProtectManager;
+import newplayerpanel.spawnprotect.SpawnZone;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+public final class RestrictionTargets {
+
+    private static final String GROUP_PREFIX = "group:";
+    private static final String ZONE_PREFIX = "zone:";
+
+    private final List<Player> players;
+    private final List<UUID> playerUUIDs;
+    private final List<String> unknown;
+    private final boolean bulk;
+    private final boolean names;
+
+    private RestrictionTargets(Collection<Player> players, Collection<UUID> playerUUIDs, List<String> unknown,
+                               boolean bulk, boolean names) {
+        this.players = Collections.unmodifiableList(new ArrayList<>(players));
+        this.playerUUIDs = Collections.unmodifiableList(new ArrayList<>(playerUUIDs));
+        this.unknown = Collections.unmodifiableList(unknown);
+        this.bulk = bulk;
+        this.names = names;
+    }
+
+    private RestrictionTargets(Collection<Player> players, List<String> unknown, boolean bulk, boolean names) {
+        this(players, uuids(players), unknown, bulk, names);
+    }
+
+    private static Set<UUID> uuids(Collection<Player> players) {
+        Set<UUID> uuids = new LinkedHashSet<>();
+        for (Player player : players) {
+            uuids.add(player.getUniqueId());
+        }
+        return uuids;
+    }
+
+    public static RestrictionTargets resolve(String spec, SpawnProtectManager spawnProtectManager) {
+        Set<Player> players = new LinkedHashSet<>();
+        List<String> unknown = new ArrayList<>();
+
+        if (startsWithIgnoreCase(spec, GROUP_PREFIX)) {
+            String permission = "group." + spec.substring(GROUP_PREFIX.length()).toLowerCase(Locale.ROOT);
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (player.hasPermission(permission)) {
+                    players.add(player);
+                }
+            }
+            return new RestrictionTargets(players, unknown, true, false);
+        }
+
+        if (startsWithIgnoreCase(spec, ZONE_PREFIX)) {
+            String zoneName = spec.substring(ZONE_PREFIX.length());
+            SpawnZone zone = spawnProtectManager != null ? spawnProtectManager.getZone(zoneName) : null;
+            if (zone == null) {
+                unknown.add(spec);
+            } else {
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    if (zone.contains(player.getLocation())) {
+                        players.add(player);
+                    }
+                }
+            }
+            return new RestrictionTargets(players, unknown, true, false);
+        }
+
+        String[] names = spec.split(",");
+        for (String name : names) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Player player = Bukkit.getPlayerExact(trimmed);
+            if (player != null) {
+                players.add(player);
+            } else {
+                unknown.add(trimmed);
+            }
+        }
+        return new RestrictionTargets(players, unknown, names.length > 1, true);
+    }
+
+    public boolean needsLookup() {
+        return names && !unknown.isEmpty();
+    }
+
+    public RestrictionTargets withResolved(Collection<UUID> resolved, List<String> missing) {
+        Set<UUID> uuids = new LinkedHashSet<>(playerUUIDs);
+        uuids.addAll(resolved);
+        return new RestrictionTargets(players, uuids, missing, bulk, false);
+    }
+
+    public static List<String> complete(String input, SpawnProtectManager spawnProtectManager) {
+        List<String> completions = new ArrayList<>();
+        String lower = input.toLowerCase(Locale.ROOT);
+
+        if (startsWithIgnoreCase(input, ZONE_PREFIX)) {
+            if (spawnProtectManager != null) {
+                for (SpawnZone zone : spawnProtectManager.getZones()) {
+                    String option = ZONE_PREFIX + zone.getName();
+                    if (option.toLowerCase(Locale.ROOT).startsWith(lower)) {
+                        completions.add(option);
+                    }
+                }
+            }
+            return completions;
+        }
+
+        int comma = input.lastIndexOf(',');
+        String prefix = input.substring(0, comma + 1);
+        String last = lower.substring(comma + 1);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (player.getName().toLowerCase(Locale.ROOT).startsWith(last)) {
+                completions.add(prefix + player.getName());
+            }
+        }
+        if (comma < 0) {
+            for (String option : new String[] {GROUP_PREFIX, ZONE_PREFIX}) {
+                if (option.startsWith(lower)) {
+                    completions.add(option);
+                }
+            }
+        }
+        return completions;
+    }
+
+    private static boolean startsWithIgnoreCase(String value, String prefix) {
+        return value.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    public List<UUID> getPlayerUUIDs() {
+        return playerUUIDs;
+    }
+
+    public List<String> getUnknown() {
+        return unknown;
+    }
+
+    public boolean isBulk() {
+        return bulk;
+    }
+}
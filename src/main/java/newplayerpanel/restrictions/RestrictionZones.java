@@ -0,0 +1,57 @@
+package newplayerpanel.restrictions;
+
+import newplayerpanel.spawnprotect.ZoneChunkMap;
+import org.bukkit.entity.Player;
+
+import java.util.logging.Logger;
+
+final class RestrictionZones {
+
+    private static final long ZONED = 1L << ZoneChunkMap.MAX_ZONES;
+
+    static final RestrictionZones EMPTY = new RestrictionZones(ZoneChunkMap.empty(), new long[0]);
+
+    private final ZoneChunkMap chunkMap;
+    private final long[] masksById;
+
+    private RestrictionZones(ZoneChunkMap chunkMap, long[] masksById) {
+        this.chunkMap = chunkMap;
+        this.masksById = masksById;
+    }
+
+    static RestrictionZones build(RestrictionRegistry registry, ZoneChunkMap chunkMap, Logger logger) {
+        int maxId = -1;
+        for (Restriction restriction : registry.getRestrictions()) {
+            if (restriction.isZoned()) {
+                maxId = Math.max(maxId, restriction.getId());
+            }
+        }
+        if (maxId < 0) {
+            return new RestrictionZones(chunkMap, new long[0]);
+        }
+
+        long[] masks = new long[maxId + 1];
+        for (Restriction restriction : registry.getRestrictions()) {
+            if (!restriction.isZoned()) {
+                continue;
+            }
+            long mask = ZONED;
+            for (String zoneName : restriction.getZones()) {
+                int index = chunkMap.indexOf(zoneName);
+                if (index < 0) {
+                    logger.warning("Restriction '" + restriction.getName() + "' references unknown zone '" + zoneName + "'.");
+                } else {
+                    mask |= 1L << index;
+                }
+            }
+            masks[restriction.getId()] = mask;
+        }
+        return new RestrictionZones(chunkMap, masks);
+    }
+
+    boolean appliesTo(Restriction restriction, Player player) {
+        int id = restriction.getId();
+        long mask = id >= 0 && id < masksById.length ? masksById[id] : 0L;
+        return mask == 0L || chunkMap.isInAny(player.getLocation(), mask & ~ZONED);
+    }
+}
@@ -9,15 +9,19 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.util.List;
+import java.util.UUID;
 
 public class RestrictionsCommand implements CommandExecutor {
     
     private final RestrictionsManager restrictionsManager;
     private final MessageManager messageManager;
+    private final OfflinePlayerResolver offlinePlayerResolver;
     
-    public RestrictionsCommand(RestrictionsManager restrictionsManager, MessageManager messageManager) {
+    public RestrictionsCommand(RestrictionsManager restrictionsManager, MessageManager messageManager,
+                               OfflinePlayerResolver offlinePlayerResolver) {
         this.restrictionsManager = restrictionsManager;
         this.messageManager = messageManager;
+        this.offlinePlayerResolver = offlinePlayerResolver;
     }
     
     @Override
@@ -33,9 +37,12 @@ public class RestrictionsCommand implements CommandExecutor {
                     return true;
                 }
             } else {
-                targetPlayer = Bukkit.getPlayer(args[0]);
+                targetPlayer = Bukkit.getPlayerExact(args[0]);
                 if (targetPlayer == null) {
-                    sender.sendMessage(messageManager.get("player-not-found"));
+                    String targetName = args[0];
+                    offlinePlayerResolver.resolve(targetName,
+                        playerUUID -> showRestrictions(sender, playerUUID, offlinePlayerResolver.getName(playerUUID, targetName)),
+                        () -> sender.sendMessage(messageManager.get("player-not-found")));
                     return true;
                 }
             }
@@ -51,15 +58,20 @@ public class RestrictionsCommand implements CommandExecutor {
             targetPlayer = (Player) sender;
         }
         
-        List<PlayerRestriction> activePersonal = restrictionsManager.getPlayerRestrictions(targetPlayer.getUniqueId());
-        List<Restriction> activeDefaults = restrictionsManager.getActiveDefaultRestrictions(targetPlayer.getUniqueId());
+        showRestrictions(sender, targetPlayer.getUniqueId(), targetPlayer.getName());
+        return true;
+    }
+    
+    private void showRestrictions(CommandSender sender, UUID playerUUID, String playerName) {
+        List<PlayerRestriction> activePersonal = restrictionsManager.getPlayerRestrictions(playerUUID);
+        List<Restriction> activeDefaults = restrictionsManager.getActiveDefaultRestrictions(playerUUID);
         
         if (activePersonal.isEmpty() && activeDefaults.isEmpty()) {
             sender.sendMessage(messageManager.get("restrictions-no-active"));
-            return true;
+            return;
         }
         
-        sender.sendMessage(messageManager.get("restrictions-header", "player", targetPlayer.getName()));
+        sender.sendMessage(messageManager.get("restrictions-header", "player", playerName));
         
         for (PlayerRestriction pr : activePersonal) {
             String timeFormatted = TimeUtil.formatTimeLocalized(pr.getRemainingSeconds(), messageManager);
@@ -72,14 +84,12 @@ public class RestrictionsCommand implements CommandExecutor {
             sender.sendMessage(messageManager.get("restrictions-defaults-header"));
             
             for (Restriction restriction : activeDefaults) {
-                long remainingTime = restrictionsManager.getDefaultRestrictionRemainingTime(targetPlayer.getUniqueId(), restriction.getName());
+                long remainingTime = restrictionsManager.getDefaultRestrictionRemainingTime(playerUUID, restriction.getName());
                 String timeFormatted = TimeUtil.formatTimeLocalized(remainingTime, messageManager);
                 sender.sendMessage(messageManager.get("restrictions-entry-default", 
                     "restriction", restriction.getName(), 
                     "time", timeFormatted));
             }
         }
-        
-        return true;
     }
 }
@@ -0,0 +1,101 @@
+package newplayerpanel.restrictions;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+public class RestrictionsFileWatcher {
+
+    private static final long DEBOUNCE_MILLIS = 500L;
+
+    private final JavaPlugin plugin;
+    private final File file;
+    private final Runnable onChange;
+    private WatchService watchService;
+    private Thread thread;
+
+    public RestrictionsFileWatcher(JavaPlugin plugin, File file, Runnable onChange) {
+        this.plugin = plugin;
+        this.file = file;
+        this.onChange = onChange;
+    }
+
+    public void start() {
+        if (thread != null) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParentFile().toPath().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to watch " + file.getName() + ": " + e.getMessage());
+            close();
+            return;
+        }
+
+        WatchService service = watchService;
+        thread = new Thread(() -> run(service), "NewPlayerPanel-RestrictionsWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        thread = null;
+        close();
+    }
+
+    private void run(WatchService service) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                boolean changed = affectsFile(key);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                WatchKey next;
+                while ((next = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    next.pollEvents();
+                    next.reset();
+                }
+
+                if (plugin.isEnabled()) {
+                    Bukkit.getScheduler().runTask(plugin, onChange);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    private boolean affectsFile(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getName().equals(String.valueOf(event.context()))) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+            watchService = null;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package newplayerpanel.restrictions;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RestrictionsFileWriter {
+
+    private static final long COALESCE_MILLIS = 250L;
+
+    private final JavaPlugin plugin;
+    private final File file;
+    private final Object queueLock = new Object();
+    private final Object writeLock = new Object();
+    private RestrictionRegistry pending;
+    private RestrictionRegistry lastWritten;
+    private boolean running;
+    private Thread worker;
+
+    public RestrictionsFileWriter(JavaPlugin plugin, File file) {
+        this.plugin = plugin;
+        this.file = file;
+    }
+
+    public void start() {
+        synchronized (queueLock) {
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        worker = new Thread(this::runWorker, "NewPlayerPanel-RestrictionsFileWriter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void shutdown() {
+        Thread thread;
+        synchronized (queueLock) {
+            running = false;
+            queueLock.notifyAll();
+            thread = worker;
+            worker = null;
+        }
+
+        if (thread != null) {
+            try {
+                thread.join(10000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+    }
+
+    public void save(RestrictionRegistry registry) {
+        boolean direct;
+        synchronized (queueLock) {
+            pending = registry;
+            direct = !running;
+            if (!direct) {
+                queueLock.notifyAll();
+            }
+        }
+
+        if (direct) {
+            flush();
+        }
+    }
+
+    public void markWritten(RestrictionRegistry registry) {
+        synchronized (writeLock) {
+            lastWritten = registry;
+        }
+    }
+
+    public void flush() {
+        synchronized (writeLock) {
+            RestrictionRegistry registry;
+            synchronized (queueLock) {
+                registry = pending;
+                pending = null;
+            }
+            if (registry == null || registry == lastWritten) {
+                return;
+            }
+
+            try {
+                String existing = file.exists() ? Files.readString(file.toPath(), StandardCharsets.UTF_8) : null;
+                String content = render(registry, readHeader(existing));
+                if (!content.equals(existing)) {
+                    write(content);
+                    plugin.getLogger().fine("Saved " + registry.size() + " restrictions to " + file.getName());
+                }
+                lastWritten = registry;
+            } catch (Exception e) {
+                plugin.getLogger().severe("Failed to save " + file.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            synchronized (queueLock) {
+                while (running && pending == null) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                long deadline = System.currentTimeMillis() + COALESCE_MILLIS;
+                long remaining;
+                while (running && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        queueLock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            flush();
+        }
+    }
+
+    private void write(String content) throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static List<String> readHeader(String existing) {
+        List<String> headerComments = new ArrayList<>();
+        if (existing != null) {
+            for (String line : existing.split("\r?\n", -1)) {
+                if (line.trim().startsWith("restrictions:")) {
+                    break;
+                }
+                if (line.trim().startsWith("#") || line.trim().isEmpty()) {
+                    headerComments.add(line);
+                }
+            }
+        }
+
+        if (headerComments.isEmpty()) {
+            headerComments.add("# Restrictions configuration");
+            headerComments.add("#");
+            headerComments.add("# Each restriction has:");
+            headerComments.add("# - name: unique identifier");
+            headerComments.add("# - id: stable numeric identifier (assigned automatically)");
+            headerComments.add("# - type: EQUIPMENT, ITEM, ENTITY, or COMMAND");
+            headerComments.add("# - actions: comma-separated or list (DAMAGE, USE, DROP, PICKUP, EQUIP, EXECUTE)");
+            headerComments.add("# - item/entity/command: list of targets");
+            headerComments.add("# - time: ");
+            headerComments.add("#   -1 = permanent (always active)");
+            headerComments.add("#   0 = permanent (always active, same as -1)");
+            headerComments.add("#   >0 = active for N seconds since server start");
+            headerComments.add("# - default: true = applies to all players by default");
+            headerComments.add("# - zones: optional list of spawn-protect zones; the restriction only applies inside them");
+            headerComments.add("");
+        }
+        return headerComments;
+    }
+
+    static String render(RestrictionRegistry registry, List<String> headerComments) {
+        List<Restriction> sortedRestrictions = new ArrayList<>(registry.getRestrictions());
+        sortedRestrictions.sort((a, b) -> {
+            if (a.isDefault() != b.isDefault()) {
+                return b.isDefault() ? 1 : -1;
+            }
+            return a.getName().compareToIgnoreCase(b.getName());
+        });
+
+        StringBuilder content = new StringBuilder();
+        for (String comment : headerComments) {
+            content.append(comment).append("\n");
+        }
+
+        content.append("next-id: ").append(registry.getNextId()).append("\n");
+        content.append("restrictions:\n");
+
+        for (int i = 0; i < sortedRestrictions.size(); i++) {
+            Restriction restriction = sortedRestrictions.get(i);
+            content.append("  - name: ").append(restriction.getName()).append("\n");
+            content.append("    id: ").append(restriction.getId()).append("\n");
+            content.append("    type: ").append(restriction.getType().name()).append("\n");
+
+            List<String> actionsList = new ArrayList<>(restriction.getActions());
+            actionsList.sort(String::compareToIgnoreCase);
+            if (actionsList.size() == 1) {
+                content.append("    actions: ").append(actionsList.get(0)).append("\n");
+            } else {
+                content.append("    actions:\n");
+                for (String action : actionsList) {
+                    content.append("      - ").append(action).append("\n");
+                }
+            }
+
+            switch (restriction.getType()) {
+                case EQUIPMENT:
+                case ITEM:
+                    appendList(content, "item", restriction.getItems());
+                    break;
+                case ENTITY:
+                    appendList(content, "entity", restriction.getEntities());
+                    break;
+                case COMMAND:
+                    appendList(content, "command", restriction.getCommands());
+                    break;
+            }
+            appendList(content, "zones", restriction.getZones());
+
+            content.append("    time: ").append(restriction.getTimeSeconds()).append("\n");
+            content.append("    default: ").append(restriction.isDefault()).append("\n");
+
+            if (i < sortedRestrictions.size() - 1) {
+                content.append("\n");
+            }
+        }
+        return content.toString();
+    }
+
+    private static void appendList(StringBuilder content, String key, List<String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        List<String> sorted = new ArrayList<>(values);
+        sorted.sort(String::compareToIgnoreCase);
+        content.append("    ").append(key).append(":\n");
+        for (String value : sorted) {
+            content.append("      - ").append(value).append("\n");
+        }
+    }
+}
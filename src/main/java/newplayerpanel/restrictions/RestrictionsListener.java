@@ -1,51 +1,87 @@
 package newplayerpanel.restrictions;
 
 import newplayerpanel.messages.MessageManager;
-import newplayerpanel.util.ActionBarUtil;
-import newplayerpanel.util.TimeUtil;
+import newplayerpanel.util.PermissionCache;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockDispenseArmorEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.entity.EntityPickupItemEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.event.server.ServerLoadEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
-import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
 
 public class RestrictionsListener implements Listener {
     
+    private static final int ARMOR_SWEEP_PERIOD_TICKS = 100;
+    
     private final RestrictionsManager restrictionsManager;
     private final MessageManager messageManager;
+    private final PermissionCache permissionCache;
     private final org.bukkit.plugin.Plugin plugin;
+    private final DenialFeedback denialFeedback;
+    private final RestrictionMetrics metrics;
+    private final Set<UUID> pendingArmorChecks = new HashSet<>();
+    private final Deque<Player> armorSweepQueue = new ArrayDeque<>();
+    private int armorSweepBatchSize;
+    private int armorSweepTick;
     private int armorCheckTaskId = -1;
     
-    public RestrictionsListener(RestrictionsManager restrictionsManager, MessageManager messageManager, org.bukkit.plugin.Plugin plugin) {
+    public RestrictionsListener(RestrictionsManager restrictionsManager, MessageManager messageManager,
+                               PermissionCache permissionCache, org.bukkit.plugin.Plugin plugin) {
         this.restrictionsManager = restrictionsManager;
         this.messageManager = messageManager;
+        this.permissionCache = permissionCache;
         this.plugin = plugin;
-        startArmorCheckTask();
+        this.denialFeedback = new DenialFeedback(messageManager, getFeedbackIntervalMillis());
+        this.metrics = restrictionsManager.getMetrics();
+        restrictionsManager.addIndexListener(this::updateArmorCheckTask);
+        updateArmorCheckTask();
+    }
+    
+    public void reloadFeedback() {
+        denialFeedback.setInterval(getFeedbackIntervalMillis());
+        denialFeedback.clear();
     }
     
-    private void startArmorCheckTask() {
+    private long getFeedbackIntervalMillis() {
+        return plugin != null ? plugin.getConfig().getLong("restrictions.feedback-interval-ms", 500L) : 500L;
+    }
+    
+    public void updateArmorCheckTask() {
         if (plugin == null) {
             return;
         }
         
-        armorCheckTaskId = new BukkitRunnable() {
-            @Override
-            public void run() {
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    checkPlayerArmorSlots(player);
-                }
-            }
-        }.runTaskTimer(plugin, 2L, 2L).getTaskId();
+        boolean needed = restrictionsManager.getRestrictionIndex().hasEquipRestrictions();
+        if (needed && armorCheckTaskId == -1) {
+            armorSweepTick = 0;
+            armorCheckTaskId = Bukkit.getScheduler().runTaskTimer(plugin, this::sweepArmorSlice, 20L, 1L).getTaskId();
+        } else if (!needed) {
+            stopArmorCheckTask();
+        }
     }
     
     public void stopArmorCheckTask() {
@@ -53,6 +89,34 @@ public class RestrictionsListener implements Listener {
             Bukkit.getScheduler().cancelTask(armorCheckTaskId);
             armorCheckTaskId = -1;
         }
+        armorSweepQueue.clear();
+    }
+    
+    private void sweepArmorSlice() {
+        if (armorSweepTick == 0) {
+            armorSweepQueue.clear();
+            armorSweepQueue.addAll(Bukkit.getOnlinePlayers());
+            armorSweepBatchSize = (armorSweepQueue.size() + ARMOR_SWEEP_PERIOD_TICKS - 1) / ARMOR_SWEEP_PERIOD_TICKS;
+        }
+        armorSweepTick = (armorSweepTick + 1) % ARMOR_SWEEP_PERIOD_TICKS;
+        
+        for (int i = 0; i < armorSweepBatchSize && !armorSweepQueue.isEmpty(); i++) {
+            checkPlayerArmorSlots(armorSweepQueue.poll());
+        }
+    }
+    
+    private void scheduleArmorCheck(Player player) {
+        if (plugin == null || !restrictionsManager.getRestrictionIndex().hasEquipRestrictions()) {
+            return;
+        }
+        
+        UUID playerUUID = player.getUniqueId();
+        if (pendingArmorChecks.add(playerUUID)) {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                pendingArmorChecks.remove(playerUUID);
+                checkPlayerArmorSlots(Bukkit.getPlayer(playerUUID));
+            });
+        }
     }
     
     private void checkPlayerArmorSlots(Player player) {
@@ -91,16 +155,20 @@ public class RestrictionsListener implements Listener {
         }
     }
     
-    private boolean checkRestriction(Player player, Restriction restriction, String messageKey) {
-        if (player.hasPermission("newplayerpanel.restrictions.bypass")) {
+    private boolean checkRestriction(Player player, Restriction restriction, RestrictionAction action, String messageKey) {
+        if (permissionCache.hasPermission(player, PermissionCache.RESTRICTIONS_BYPASS)) {
             return false;
         }
         
-        if (restrictionsManager.isRestricted(player.getUniqueId(), restriction)) {
-            long remaining = restrictionsManager.getRestrictionRemainingTime(player.getUniqueId(), restriction.getName());
-            String timeFormatted = TimeUtil.formatTimeLocalized(remaining, messageManager);
-            net.kyori.adventure.text.Component message = messageManager.getComponent(messageKey, "time", timeFormatted);
-            ActionBarUtil.sendActionBar(player, message);
+        long start = metrics.start();
+        boolean restricted = restrictionsManager.appliesTo(restriction, player)
+            && restrictionsManager.isRestricted(player.getUniqueId(), restriction);
+        metrics.recordCheck(restriction, action, restricted, start);
+        if (restricted) {
+            if (denialFeedback.tryAcquire(player.getUniqueId(), restriction.getId())) {
+                long remaining = restrictionsManager.getRestrictionRemainingTime(player.getUniqueId(), restriction.getName());
+                denialFeedback.send(player, messageKey, remaining);
+            }
             return true;
         }
         return false;
@@ -122,128 +190,221 @@ public class RestrictionsListener implements Listener {
     }
     
     private boolean isRestrictedForEquip(Player player, ItemStack item) {
-        if (item == null || item.getType() == Material.AIR) {
-            return false;
-        }
-        
-        String itemType = item.getType().getKey().toString();
-        
-        for (Restriction restriction : restrictionsManager.getRestrictions()) {
-            if ((restriction.getType() == Restriction.RestrictionType.EQUIPMENT || 
-                 restriction.getType() == Restriction.RestrictionType.ITEM) &&
-                restriction.getActions().contains("EQUIP") &&
-                restriction.getItems().contains(itemType)) {
-                
-                return checkRestriction(player, restriction, "restrictions-blocked-item");
+        long start = metrics.start();
+        try {
+            if (item == null || item.getType() == Material.AIR) {
+                return false;
+            }
+            
+            for (Restriction restriction : restrictionsManager.getRestrictionIndex().getEquipRestrictions(item.getType())) {
+                if (checkRestriction(player, restriction, RestrictionAction.EQUIP, "restrictions-blocked-item")) {
+                    return true;
+                }
             }
+            
+            return false;
+        } finally {
+            metrics.recordEvent(RestrictionAction.EQUIP, start);
         }
-        
-        return false;
     }
     
     @EventHandler(priority = EventPriority.HIGH)
     public void onEntityDamage(EntityDamageByEntityEvent event) {
-        if (!(event.getDamager() instanceof Player)) {
-            return;
-        }
-        
-        Player player = (Player) event.getDamager();
-        String entityType = event.getEntityType().getKey().toString();
-        
-        for (Restriction restriction : restrictionsManager.getRestrictions()) {
-            if (restriction.getType() == Restriction.RestrictionType.ENTITY &&
-                restriction.getActions().contains("DAMAGE") &&
-                restriction.getEntities().contains(entityType)) {
-                
-                if (checkRestriction(player, restriction, "restrictions-blocked-damage")) {
+        long start = metrics.start();
+        try {
+            if (!(event.getDamager() instanceof Player)) {
+                return;
+            }
+            
+            Restriction[] candidates = restrictionsManager.getRestrictionIndex().getDamageRestrictions(event.getEntityType());
+            if (candidates.length == 0) {
+                return;
+            }
+            
+            Player player = (Player) event.getDamager();
+            for (Restriction restriction : candidates) {
+                if (checkRestriction(player, restriction, RestrictionAction.DAMAGE, "restrictions-blocked-damage")) {
                     event.setCancelled(true);
                     return;
                 }
             }
+        } finally {
+            metrics.recordEvent(RestrictionAction.DAMAGE, start);
         }
     }
     
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerInteract(PlayerInteractEvent event) {
-        ItemStack item = event.getItem();
-        if (item == null || item.getType() == Material.AIR) {
-            return;
-        }
-        
-        Player player = event.getPlayer();
-        String itemType = item.getType().getKey().toString();
-        String action = event.getAction().name();
-        
-        for (Restriction restriction : restrictionsManager.getRestrictions()) {
-            if (restriction.getType() == Restriction.RestrictionType.ITEM &&
-                restriction.getItems().contains(itemType)) {
-                
-                if (restriction.getActions().contains("USE") && 
-                    (action.contains("RIGHT_CLICK") || action.contains("LEFT_CLICK"))) {
-                    if (checkRestriction(player, restriction, "restrictions-blocked-item")) {
-                        event.setCancelled(true);
-                        return;
-                    }
+        long start = metrics.start();
+        try {
+            ItemStack item = event.getItem();
+            if (item == null || event.getAction() == Action.PHYSICAL) {
+                return;
+            }
+            
+            Restriction[] candidates = restrictionsManager.getRestrictionIndex().getUseRestrictions(item.getType());
+            if (candidates.length == 0) {
+                return;
+            }
+            
+            Player player = event.getPlayer();
+            for (Restriction restriction : candidates) {
+                if (checkRestriction(player, restriction, RestrictionAction.USE, "restrictions-blocked-item")) {
+                    event.setCancelled(true);
+                    return;
                 }
             }
+        } finally {
+            metrics.recordEvent(RestrictionAction.USE, start);
         }
     }
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerDropItem(PlayerDropItemEvent event) {
-        Player player = event.getPlayer();
-        String itemType = event.getItemDrop().getItemStack().getType().getKey().toString();
-        
-        for (Restriction restriction : restrictionsManager.getRestrictions()) {
-            if (restriction.getType() == Restriction.RestrictionType.ITEM &&
-                restriction.getActions().contains("DROP") &&
-                restriction.getItems().contains(itemType)) {
-                
-                if (checkRestriction(player, restriction, "restrictions-blocked-drop")) {
+        long start = metrics.start();
+        try {
+            Material material = event.getItemDrop().getItemStack().getType();
+            Restriction[] candidates = restrictionsManager.getRestrictionIndex().getDropRestrictions(material);
+            if (candidates.length == 0) {
+                return;
+            }
+            
+            Player player = event.getPlayer();
+            for (Restriction restriction : candidates) {
+                if (checkRestriction(player, restriction, RestrictionAction.DROP, "restrictions-blocked-drop")) {
                     event.setCancelled(true);
                     return;
                 }
             }
+        } finally {
+            metrics.recordEvent(RestrictionAction.DROP, start);
         }
     }
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerPickupItem(EntityPickupItemEvent event) {
-        if (!(event.getEntity() instanceof Player)) {
-            return;
-        }
-        
-        Player player = (Player) event.getEntity();
-        String itemType = event.getItem().getItemStack().getType().getKey().toString();
-        
-        for (Restriction restriction : restrictionsManager.getRestrictions()) {
-            if (restriction.getType() == Restriction.RestrictionType.ITEM &&
-                restriction.getActions().contains("PICKUP") &&
-                restriction.getItems().contains(itemType)) {
-                
-                if (checkRestriction(player, restriction, "restrictions-blocked-pickup")) {
+        long start = metrics.start();
+        try {
+            if (!(event.getEntity() instanceof Player)) {
+                return;
+            }
+            
+            Material material = event.getItem().getItemStack().getType();
+            Restriction[] candidates = restrictionsManager.getRestrictionIndex().getPickupRestrictions(material);
+            if (candidates.length == 0) {
+                return;
+            }
+            
+            Player player = (Player) event.getEntity();
+            for (Restriction restriction : candidates) {
+                if (checkRestriction(player, restriction, RestrictionAction.PICKUP, "restrictions-blocked-pickup")) {
                     event.setCancelled(true);
                     return;
                 }
             }
+        } finally {
+            metrics.recordEvent(RestrictionAction.PICKUP, start);
         }
     }
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
-        Player player = event.getPlayer();
-        String command = event.getMessage().substring(1).split(" ")[0].toLowerCase();
-        
-        for (Restriction restriction : restrictionsManager.getRestrictions()) {
-            if (restriction.getType() == Restriction.RestrictionType.COMMAND &&
-                restriction.getActions().contains("EXECUTE") &&
-                restriction.getCommands().contains(command)) {
-                
-                if (checkRestriction(player, restriction, "restrictions-blocked-command")) {
+        long start = metrics.start();
+        try {
+            Player player = event.getPlayer();
+            
+            for (Restriction restriction : restrictionsManager.getCommandMatcher().match(event.getMessage())) {
+                if (checkRestriction(player, restriction, RestrictionAction.EXECUTE, "restrictions-blocked-command")) {
                     event.setCancelled(true);
                     return;
                 }
             }
+        } finally {
+            metrics.recordEvent(RestrictionAction.EXECUTE, start);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onServerLoad(ServerLoadEvent event) {
+        restrictionsManager.rebuildCommandMatcher();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginEnable(PluginEnableEvent event) {
+        restrictionsManager.scheduleCommandMatcherRebuild();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        restrictionsManager.scheduleCommandMatcherRebuild();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (!(event.getWhoClicked() instanceof Player)) {
+            return;
+        }
+        
+        if (event.getSlotType() == InventoryType.SlotType.ARMOR || event.isShiftClick()) {
+            scheduleArmorCheck((Player) event.getWhoClicked());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (!(event.getWhoClicked() instanceof Player)) {
+            return;
+        }
+        
+        for (int rawSlot : event.getRawSlots()) {
+            if (event.getView().getSlotType(rawSlot) == InventoryType.SlotType.ARMOR) {
+                scheduleArmorCheck((Player) event.getWhoClicked());
+                return;
+            }
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onArmorEquipInteract(PlayerInteractEvent event) {
+        if (event.getAction() != Action.RIGHT_CLICK_AIR && event.getAction() != Action.RIGHT_CLICK_BLOCK) {
+            return;
+        }
+        
+        ItemStack item = event.getItem();
+        if (item != null && restrictionsManager.getRestrictionIndex().getEquipRestrictions(item.getType()).length > 0) {
+            scheduleArmorCheck(event.getPlayer());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onDispenseArmor(BlockDispenseArmorEvent event) {
+        if (event.getTargetEntity() instanceof Player && isRestrictedForEquip((Player) event.getTargetEntity(), event.getItem())) {
+            event.setCancelled(true);
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            restrictionsManager.preloadPlayerRestrictions(event.getUniqueId());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoinLoadRestrictions(PlayerJoinEvent event) {
+        restrictionsManager.handlePlayerJoin(event.getPlayer().getUniqueId());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        scheduleArmorCheck(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRestrictionExpire(PlayerRestrictionExpireEvent event) {
+        Player player = Bukkit.getPlayer(event.getPlayerUUID());
+        if (player != null) {
+            player.sendMessage(messageManager.get("restrictions-notify-expired", "restriction", event.getRestrictionName()));
         }
     }
 
@@ -251,7 +412,9 @@ public class RestrictionsListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         if (player != null) {
-            restrictionsManager.clearAllCancelledDefaultRestrictions(player.getUniqueId());
+            pendingArmorChecks.remove(player.getUniqueId());
+            denialFeedback.forget(player.getUniqueId());
+            restrictionsManager.handlePlayerQuit(player.getUniqueId());
         }
     }
 }
@@ -1,11 +1,13 @@
 package newplayerpanel.restrictions;
 
 import newplayerpanel.messages.MessageManager;
+import newplayerpanel.spawnprotect.SpawnProtectManager;
+import newplayerpanel.storage.RestrictionWrite;
+import newplayerpanel.storage.RestrictionWriteQueue;
 import newplayerpanel.storage.StorageProvider;
+import newplayerpanel.storage.StoredPlayerRestrictions;
+import newplayerpanel.util.PlaytimeTracker;
 import org.bukkit.Bukkit;
-import org.bukkit.Statistic;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -13,33 +15,168 @@ import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.UnaryOperator;
 
 public class RestrictionsManager {
     
+    private static final int MIN_STALE_EXPIRIES = 1024;
+    
     private final JavaPlugin plugin;
     private final StorageProvider storageProvider;
+    private final RestrictionWriteQueue writeQueue;
+    private final PlayerRestrictionLoader restrictionLoader;
     private final MessageManager messageManager;
+    private final PlaytimeTracker playtimeTracker;
+    private final SpawnProtectManager spawnProtectManager;
     private File restrictionsFile;
-    private FileConfiguration restrictionsConfig;
-    private List<Restriction> restrictions;
-    private final Map<UUID, List<PlayerRestriction>> playerRestrictionsCache;
-    private final Map<UUID, Set<String>> cancelledDefaultRestrictions;
-    private int cleanupTaskId;
+    private volatile RestrictionRegistry registry = RestrictionRegistry.empty();
+    private RestrictionsFileWatcher fileWatcher;
+    private final RestrictionsFileWriter fileWriter;
+    private final RestrictionMetrics metrics;
+    private volatile CommandMatcher commandMatcher;
+    private volatile RestrictionZones restrictionZones = RestrictionZones.EMPTY;
+    private boolean commandMatcherRebuildScheduled;
+    private final List<Runnable> indexListeners = new CopyOnWriteArrayList<>();
+    private final Map<UUID, PlayerRestrictionSnapshot> playerRestrictionsCache;
+    private final Set<UUID> onlinePlayers;
+    private final Map<UUID, Boolean> offlineResidents;
+    private final Map<UUID, List<Runnable>> residentLoads = new HashMap<>();
+    private volatile boolean registryLoadFailed;
+    private final int offlineCacheSize;
+    private final long preloadTimeoutMillis;
+    private final Map<UUID, EffectiveRestrictions> effectiveRestrictions;
+    private final PriorityQueue<PlayerRestriction> expiryQueue;
+    private int staleExpiries;
+    private int expiryTaskId;
+    private long scheduledExpiryTime;
     private long serverStartTime;
     
-    public RestrictionsManager(JavaPlugin plugin, StorageProvider storageProvider, MessageManager messageManager) {
+    public RestrictionsManager(JavaPlugin plugin, StorageProvider storageProvider, MessageManager messageManager,
+                               PlaytimeTracker playtimeTracker, SpawnProtectManager spawnProtectManager) {
         this.plugin = plugin;
         this.storageProvider = storageProvider;
+        this.writeQueue = new RestrictionWriteQueue(plugin, storageProvider,
+            plugin.getConfig().getInt("restrictions.write-queue.soft-limit",
+                plugin.getConfig().getInt("restrictions.write-queue.capacity", 10000)),
+            plugin.getConfig().getLong("restrictions.write-queue.flush-delay-ms", 100L));
+        writeQueue.start();
+        this.restrictionLoader = new PlayerRestrictionLoader(plugin, storageProvider, writeQueue,
+            plugin.getConfig().getLong("restrictions.preload.batch-window-ms", 50L));
+        restrictionLoader.start();
+        this.offlineCacheSize = Math.max(0, plugin.getConfig().getInt("restrictions.offline-cache-size", 1000));
+        this.preloadTimeoutMillis = Math.max(1L, plugin.getConfig().getLong("restrictions.preload.timeout-ms", 5000L));
         this.messageManager = messageManager;
-        this.restrictions = new ArrayList<>();
+        this.playtimeTracker = playtimeTracker;
+        this.spawnProtectManager = spawnProtectManager;
+        this.commandMatcher = CommandMatcher.empty();
         this.playerRestrictionsCache = new ConcurrentHashMap<>();
-        this.cancelledDefaultRestrictions = new ConcurrentHashMap<>();
+        this.onlinePlayers = ConcurrentHashMap.newKeySet();
+        this.offlineResidents = new LinkedHashMap<>(64, 0.75f, true);
+        this.effectiveRestrictions = new ConcurrentHashMap<>();
+        this.expiryQueue = new PriorityQueue<>(Comparator.comparingLong(PlayerRestriction::getExpireTime));
         this.restrictionsFile = new File(plugin.getDataFolder(), "restrictions.yml");
+        this.fileWriter = new RestrictionsFileWriter(plugin, restrictionsFile);
+        fileWriter.start();
+        this.metrics = new RestrictionMetrics(plugin);
+        metrics.reload();
+        if (spawnProtectManager != null) {
+            spawnProtectManager.addZoneListener(this::rebuildRestrictionZones);
+        }
         this.serverStartTime = System.currentTimeMillis();
     }
     
     public void loadRestrictions() {
+        ensureRestrictionsFile();
+        
+        RestrictionRegistry loaded;
+        try {
+            loaded = RestrictionRegistry.load(restrictionsFile, plugin.getLogger());
+            registryLoadFailed = false;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to load restrictions.yml, no restrictions are active until it is fixed and reloaded: "
+                + e.getMessage());
+            loaded = RestrictionRegistry.empty();
+            registryLoadFailed = true;
+        }
+        installRegistry(loaded);
+        
+        if (!registryLoadFailed) {
+            plugin.getLogger().info("Loaded " + loaded.size() + " restrictions.");
+            if (loaded.hasAssignedIds()) {
+                saveRestrictions();
+            } else {
+                fileWriter.markWritten(loaded);
+            }
+        }
+        
+        reloadResidentPlayers();
+        effectiveRestrictions.clear();
+        writeQueue.requestCleanup();
+    }
+    
+    public void reloadRestrictions() {
+        ensureRestrictionsFile();
+        
+        RestrictionRegistry base = registry;
+        long start = System.nanoTime();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            RestrictionRegistry loaded;
+            try {
+                loaded = RestrictionRegistry.load(restrictionsFile, plugin.getLogger());
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to reload restrictions.yml, keeping the current restrictions: " + e.getMessage());
+                return;
+            }
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> applyReloadedRegistry(base, loaded, start));
+            }
+        });
+    }
+    
+    private void applyReloadedRegistry(RestrictionRegistry base, RestrictionRegistry loaded, long start) {
+        if (registry != base) {
+            reloadRestrictions();
+            return;
+        }
+        
+        RestrictionRegistry.Diff diff = loaded.diff(base);
+        if (loaded.getInvalidEntries() > 0 && !diff.getRemoved().isEmpty()) {
+            plugin.getLogger().warning("restrictions.yml has " + loaded.getInvalidEntries() + " invalid entries and would remove "
+                + diff.getRemoved().size() + " restrictions, keeping the current restrictions until it is fixed.");
+            return;
+        }
+        if (diff.isEmpty() && !registryLoadFailed) {
+            plugin.getLogger().fine("restrictions.yml reloaded without changes.");
+            return;
+        }
+        
+        installRegistry(loaded);
+        if (loaded.hasAssignedIds()) {
+            saveRestrictions();
+        } else {
+            fileWriter.markWritten(loaded);
+        }
+        if (registryLoadFailed) {
+            registryLoadFailed = false;
+            reloadResidentPlayers();
+            effectiveRestrictions.clear();
+            plugin.getLogger().info("Loaded " + loaded.size() + " restrictions after an earlier load failure.");
+            return;
+        }
+        int affected = pruneResidentPlayers(diff);
+        
+        plugin.getLogger().info("Reloaded restrictions.yml in " + (System.nanoTime() - start) / 1_000_000L + " ms: "
+            + diff.getAdded().size() + " added, " + diff.getChanged().size() + " changed, "
+            + diff.getRemoved().size() + " removed, " + affected + " players affected.");
+    }
+    
+    private void ensureRestrictionsFile() {
         if (!restrictionsFile.exists()) {
             plugin.getDataFolder().mkdirs();
             try (InputStream in = plugin.getResource("restrictions.yml")) {
@@ -50,198 +187,368 @@ public class RestrictionsManager {
                 plugin.getLogger().warning("Failed to create restrictions.yml: " + e.getMessage());
             }
         }
+    }
+    
+    private int pruneResidentPlayers(RestrictionRegistry.Diff diff) {
+        if (diff.isDefaultsChanged()) {
+            effectiveRestrictions.clear();
+        }
         
-        restrictionsConfig = YamlConfiguration.loadConfiguration(restrictionsFile);
-        restrictions.clear();
-        
-        List<?> restrictionsList = restrictionsConfig.getList("restrictions");
-        if (restrictionsList != null) {
-            for (Object obj : restrictionsList) {
-                if (obj instanceof java.util.Map) {
-                    @SuppressWarnings("unchecked")
-                    java.util.Map<String, Object> map = (java.util.Map<String, Object>) obj;
-                    try {
-                        Restriction restriction = Restriction.fromMap(map);
-                        restrictions.add(restriction);
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("Error loading restriction: " + e.getMessage());
-                    }
+        List<RestrictionWrite> writes = new ArrayList<>();
+        int affected = 0;
+        for (Map.Entry<UUID, PlayerRestrictionSnapshot> entry : playerRestrictionsCache.entrySet()) {
+            if (prune(entry.getValue(), diff) == entry.getValue()) {
+                continue;
+            }
+            
+            UUID playerUUID = entry.getKey();
+            PlayerRestrictionSnapshot previous = updatePlayerRestrictions(playerUUID, snapshot -> prune(snapshot, diff), false);
+            for (PlayerRestriction pr : previous.getRestrictions()) {
+                if (diff.getStaleNames().contains(pr.getRestrictionName().toLowerCase(Locale.ROOT))) {
+                    unscheduleExpiry(previous, pr.getRestrictionName());
+                    writes.add(RestrictionWrite.remove(playerUUID, pr.getRestrictionName()));
                 }
             }
+            
+            PlayerRestrictionSnapshot current = playerRestrictionsCache.get(playerUUID);
+            if (current != null && !current.getOverrides().equals(previous.getOverrides())) {
+                writes.add(RestrictionWrite.overrides(playerUUID, StoredPlayerRestrictions.encodeOverrides(current.getOverrides())));
+            }
+            invalidateEffectiveRestrictions(playerUUID);
+            affected++;
         }
         
-        plugin.getLogger().info("Loaded " + restrictions.size() + " restrictions.");
-        
-        loadPlayerRestrictionsFromStorage();
-        startCleanupTask();
+        if (!writes.isEmpty()) {
+            writeQueue.enqueueAll(writes);
+        }
+        return affected;
+    }
+    
+    private static PlayerRestrictionSnapshot prune(PlayerRestrictionSnapshot snapshot, RestrictionRegistry.Diff diff) {
+        PlayerRestrictionSnapshot next = snapshot;
+        for (PlayerRestriction pr : snapshot.getRestrictions()) {
+            if (diff.getStaleNames().contains(pr.getRestrictionName().toLowerCase(Locale.ROOT))) {
+                next = next.without(pr);
+            }
+        }
+        for (Restriction restriction : diff.getRemoved()) {
+            next = next.withoutOverride(restriction.getId());
+        }
+        return next;
     }
     
-    private void loadPlayerRestrictionsFromStorage() {
+    private void reloadResidentPlayers() {
+        synchronized (offlineResidents) {
+            offlineResidents.clear();
+        }
+        
+        onlinePlayers.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            onlinePlayers.add(player.getUniqueId());
+        }
+        
         playerRestrictionsCache.clear();
-        Map<UUID, List<PlayerRestriction>> loaded = storageProvider.loadPlayerRestrictions();
-        
-        for (Map.Entry<UUID, List<PlayerRestriction>> entry : loaded.entrySet()) {
-            List<PlayerRestriction> validRestrictions = new ArrayList<>();
-            for (PlayerRestriction pr : entry.getValue()) {
-                Restriction restriction = getRestrictionByName(pr.getRestrictionName());
-                if (restriction != null) {
-                    validRestrictions.add(pr);
+        synchronized (expiryQueue) {
+            expiryQueue.clear();
+            staleExpiries = 0;
+        }
+        cancelExpiryTask();
+        
+        for (UUID playerUUID : onlinePlayers) {
+            whenResident(playerUUID, null);
+        }
+        if (!onlinePlayers.isEmpty()) {
+            plugin.getLogger().info("Loading restrictions for " + onlinePlayers.size() + " online players in the background.");
+        }
+    }
+    
+    private PlayerRestrictionSnapshot toSnapshot(UUID playerUUID, StoredPlayerRestrictions loaded) {
+        RestrictionRegistry current = registry;
+        List<PlayerRestriction> validRestrictions = new ArrayList<>(loaded.getRestrictions().size());
+        for (PlayerRestriction pr : loaded.getRestrictions()) {
+            if (current.contains(pr.getRestrictionName())) {
+                validRestrictions.add(pr);
+            } else if (!registryLoadFailed) {
+                plugin.getLogger().warning("Player restriction '" + pr.getRestrictionName() + 
+                    "' for player " + playerUUID + " references non-existent restriction, removing it.");
+                writeQueue.remove(playerUUID, pr.getRestrictionName());
+            }
+        }
+        
+        BitSet overrides = loaded.getOverrides();
+        int storedOverrides = overrides.cardinality();
+        overrides.and(current.getIds());
+        if (overrides.cardinality() != storedOverrides && !registryLoadFailed) {
+            writeQueue.enqueue(RestrictionWrite.overrides(playerUUID, StoredPlayerRestrictions.encodeOverrides(overrides)));
+        }
+        return PlayerRestrictionSnapshot.of(validRestrictions, overrides);
+    }
+    
+    public void preloadPlayerRestrictions(UUID playerUUID) {
+        if (playerRestrictionsCache.containsKey(playerUUID)) {
+            return;
+        }
+        
+        try {
+            StoredPlayerRestrictions loaded = restrictionLoader.request(playerUUID).get(preloadTimeoutMillis, TimeUnit.MILLISECONDS);
+            publishLoaded(playerUUID, loaded);
+        } catch (TimeoutException e) {
+            plugin.getLogger().warning("Timed out loading restrictions for " + playerUUID + ", loading them on join.");
+        } catch (ExecutionException e) {
+            plugin.getLogger().warning("Failed to preload restrictions for " + playerUUID + ": " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public void handlePlayerJoin(UUID playerUUID) {
+        onlinePlayers.add(playerUUID);
+        synchronized (offlineResidents) {
+            offlineResidents.remove(playerUUID);
+        }
+        getPlayerRestrictionSnapshot(playerUUID);
+    }
+    
+    public void handlePlayerQuit(UUID playerUUID) {
+        onlinePlayers.remove(playerUUID);
+        invalidateEffectiveRestrictions(playerUUID);
+        if (playerRestrictionsCache.containsKey(playerUUID)) {
+            touchOfflineResident(playerUUID);
+        }
+    }
+    
+    public void whenResident(UUID playerUUID, Runnable action) {
+        boolean queued = false;
+        boolean request = false;
+        synchronized (residentLoads) {
+            List<Runnable> actions = residentLoads.get(playerUUID);
+            if (actions == null && !playerRestrictionsCache.containsKey(playerUUID)) {
+                actions = new ArrayList<>();
+                residentLoads.put(playerUUID, actions);
+                request = true;
+            }
+            if (actions != null) {
+                if (action != null) {
+                    actions.add(action);
+                }
+                queued = true;
+            }
+        }
+        
+        if (!queued) {
+            if (action != null) {
+                action.run();
+            }
+        } else if (request) {
+            restrictionLoader.request(playerUUID).whenComplete((loaded, error) -> {
+                if (plugin.isEnabled()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> residentLoaded(playerUUID, loaded, error));
                 } else {
-                    plugin.getLogger().warning("Player restriction '" + pr.getRestrictionName() + 
-                        "' for player " + entry.getKey() + " references non-existent restriction, removing it.");
-                    storageProvider.removePlayerRestriction(entry.getKey(), pr.getRestrictionName());
+                    residentLoaded(playerUUID, loaded, error);
                 }
+            });
+        }
+    }
+    
+    private void deferChange(UUID playerUUID, Runnable change) {
+        whenResident(playerUUID, new DeferredChange(change));
+    }
+    
+    private void residentLoaded(UUID playerUUID, StoredPlayerRestrictions loaded, Throwable error) {
+        if (error != null) {
+            List<Runnable> actions;
+            synchronized (residentLoads) {
+                actions = residentLoads.remove(playerUUID);
             }
-            if (!validRestrictions.isEmpty()) {
-                playerRestrictionsCache.put(entry.getKey(), validRestrictions);
+            int dropped = 0;
+            for (Runnable action : actions != null ? actions : Collections.<Runnable>emptyList()) {
+                if (action instanceof DeferredChange) {
+                    dropped++;
+                } else {
+                    action.run();
+                }
             }
+            plugin.getLogger().warning("Failed to load restrictions for " + playerUUID + ": " + error.getMessage()
+                + (dropped > 0 ? " (" + dropped + " pending changes were not applied in memory)" : ""));
+            return;
         }
         
-        plugin.getLogger().info("Loaded " + playerRestrictionsCache.size() + " players with active restrictions.");
+        publishLoaded(playerUUID, loaded);
+        invalidateEffectiveRestrictions(playerUUID);
+        
+        while (true) {
+            List<Runnable> batch;
+            synchronized (residentLoads) {
+                List<Runnable> actions = residentLoads.get(playerUUID);
+                if (actions == null || actions.isEmpty()) {
+                    residentLoads.remove(playerUUID);
+                    return;
+                }
+                batch = new ArrayList<>(actions);
+                actions.clear();
+            }
+            for (Runnable action : batch) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    plugin.getLogger().warning("Failed to apply deferred restriction change for " + playerUUID + ": " + e.getMessage());
+                }
+            }
+        }
     }
     
-    private void startCleanupTask() {
-        if (cleanupTaskId != 0) {
-            Bukkit.getScheduler().cancelTask(cleanupTaskId);
+    private PlayerRestrictionSnapshot loadResident(UUID playerUUID) {
+        StoredPlayerRestrictions loaded;
+        try {
+            loaded = restrictionLoader.load(Collections.singleton(playerUUID))
+                .getOrDefault(playerUUID, StoredPlayerRestrictions.EMPTY);
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Failed to load restrictions for " + playerUUID + ": " + e.getMessage());
+            return null;
         }
-        cleanupTaskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, () -> {
-            cleanupExpiredRestrictions();
-        }, 20L, 20L * 10L);
+        return publishLoaded(playerUUID, loaded);
     }
     
-    private void cleanupExpiredRestrictions() {
-        playerRestrictionsCache.entrySet().removeIf(entry -> {
-            entry.getValue().removeIf(PlayerRestriction::isExpired);
-            return entry.getValue().isEmpty();
-        });
+    private PlayerRestrictionSnapshot publishLoaded(UUID playerUUID, StoredPlayerRestrictions loaded) {
+        PlayerRestrictionSnapshot snapshot = toSnapshot(playerUUID, loaded);
+        PlayerRestrictionSnapshot existing = playerRestrictionsCache.putIfAbsent(playerUUID, snapshot);
+        if (existing != null) {
+            return existing;
+        }
+        
+        boolean timed = false;
+        for (PlayerRestriction pr : snapshot.getRestrictions()) {
+            if (!pr.isPermanent()) {
+                synchronized (expiryQueue) {
+                    expiryQueue.add(pr);
+                }
+                timed = true;
+            }
+        }
+        if (timed) {
+            if (Bukkit.isPrimaryThread()) {
+                scheduleExpiryTask();
+            } else if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, this::scheduleExpiryTask);
+            }
+        }
         
-        storageProvider.cleanupExpiredRestrictions();
+        if (!onlinePlayers.contains(playerUUID)) {
+            touchOfflineResident(playerUUID);
+        }
+        return snapshot;
     }
     
-    public void saveRestrictions() {
-        try {
-            List<String> headerComments = new ArrayList<>();
-            if (restrictionsFile.exists()) {
-                try (java.io.BufferedReader reader = java.nio.file.Files.newBufferedReader(
-                        restrictionsFile.toPath(), java.nio.charset.StandardCharsets.UTF_8)) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        if (line.trim().startsWith("restrictions:")) {
-                            break;
-                        }
-                        if (line.trim().startsWith("#") || line.trim().isEmpty()) {
-                            headerComments.add(line);
-                        }
-                    }
-                }
+    private void touchOfflineResident(UUID playerUUID) {
+        List<UUID> evicted = new ArrayList<>();
+        synchronized (offlineResidents) {
+            offlineResidents.put(playerUUID, Boolean.TRUE);
+            Iterator<UUID> iterator = offlineResidents.keySet().iterator();
+            while (offlineResidents.size() > offlineCacheSize && iterator.hasNext()) {
+                evicted.add(iterator.next());
+                iterator.remove();
             }
-            
-            if (headerComments.isEmpty()) {
-                headerComments.add("# Restrictions configuration");
-                headerComments.add("#");
-                headerComments.add("# Each restriction has:");
-                headerComments.add("# - name: unique identifier");
-                headerComments.add("# - type: EQUIPMENT, ITEM, ENTITY, or COMMAND");
-                headerComments.add("# - actions: comma-separated or list (DAMAGE, USE, DROP, PICKUP, EQUIP, EXECUTE)");
-                headerComments.add("# - item/entity/command: list of targets");
-                headerComments.add("# - time: ");
-                headerComments.add("#   -1 = permanent (always active)");
-                headerComments.add("#   0 = permanent (always active, same as -1)");
-                headerComments.add("#   >0 = active for N seconds since server start");
-                headerComments.add("# - default: true = applies to all players by default");
-                        headerComments.add("");
-                    }
-                    
-                    List<Restriction> sortedRestrictions = new ArrayList<>(restrictions);
-                    sortedRestrictions.sort((a, b) -> {
-                        if (a.isDefault() != b.isDefault()) {
-                            return b.isDefault() ? 1 : -1;
-                        }
-                        return a.getName().compareToIgnoreCase(b.getName());
-                    });
-                    
-                    StringBuilder content = new StringBuilder();
-                    
-                    for (String comment : headerComments) {
-                        content.append(comment).append("\n");
-                    }
-                    
-                    content.append("restrictions:\n");
-                    
-                    for (int i = 0; i < sortedRestrictions.size(); i++) {
-                Restriction restriction = sortedRestrictions.get(i);
-                content.append("  - name: ").append(restriction.getName()).append("\n");
-                content.append("    type: ").append(restriction.getType().name()).append("\n");
-                
-                List<String> actionsList = new ArrayList<>(restriction.getActions());
-                actionsList.sort(String::compareToIgnoreCase);
-                if (actionsList.size() == 1) {
-                    content.append("    actions: ").append(actionsList.get(0)).append("\n");
-                } else {
-                    content.append("    actions:\n");
-                    for (String action : actionsList) {
-                        content.append("      - ").append(action).append("\n");
+        }
+        
+        for (UUID uuid : evicted) {
+            if (onlinePlayers.contains(uuid)) {
+                continue;
+            }
+            PlayerRestrictionSnapshot removed = playerRestrictionsCache.remove(uuid);
+            if (removed != null) {
+                int timed = 0;
+                for (PlayerRestriction pr : removed.getRestrictions()) {
+                    if (!pr.isPermanent()) {
+                        timed++;
                     }
                 }
-                
-                switch (restriction.getType()) {
-                    case EQUIPMENT:
-                    case ITEM:
-                        if (!restriction.getItems().isEmpty()) {
-                            List<String> sortedItems = new ArrayList<>(restriction.getItems());
-                            sortedItems.sort(String::compareToIgnoreCase);
-                            content.append("    item:\n");
-                            for (String item : sortedItems) {
-                                content.append("      - ").append(item).append("\n");
-                            }
-                        }
-                        break;
-                    case ENTITY:
-                        if (!restriction.getEntities().isEmpty()) {
-                            List<String> sortedEntities = new ArrayList<>(restriction.getEntities());
-                            sortedEntities.sort(String::compareToIgnoreCase);
-                            content.append("    entity:\n");
-                            for (String entity : sortedEntities) {
-                                content.append("      - ").append(entity).append("\n");
-                            }
-                        }
-                        break;
-                    case COMMAND:
-                        if (!restriction.getCommands().isEmpty()) {
-                            List<String> sortedCommands = new ArrayList<>(restriction.getCommands());
-                            sortedCommands.sort(String::compareToIgnoreCase);
-                            content.append("    command:\n");
-                            for (String command : sortedCommands) {
-                                content.append("      - ").append(command).append("\n");
-                            }
-                        }
-                        break;
-                }
-                
-                        content.append("    time: ").append(restriction.getTimeSeconds()).append("\n");
-                        content.append("    default: ").append(restriction.isDefault()).append("\n");
-                        
-                        if (i < sortedRestrictions.size() - 1) {
-                    content.append("\n");
+                markExpiriesStale(timed);
+            }
+            invalidateEffectiveRestrictions(uuid);
+        }
+    }
+    
+    public int getResidentPlayerCount() {
+        return playerRestrictionsCache.size();
+    }
+    
+    private void scheduleExpiryTask() {
+        long nextExpireTime;
+        synchronized (expiryQueue) {
+            PlayerRestriction next = expiryQueue.peek();
+            if (next == null) {
+                cancelExpiryTask();
+                return;
+            }
+            nextExpireTime = next.getExpireTime();
+        }
+        
+        if (expiryTaskId != 0 && scheduledExpiryTime <= nextExpireTime) {
+            return;
+        }
+        
+        cancelExpiryTask();
+        long delayTicks = Math.max(1L, (nextExpireTime - System.currentTimeMillis() + 49L) / 50L);
+        scheduledExpiryTime = nextExpireTime;
+        expiryTaskId = Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, () -> {
+            expiryTaskId = 0;
+            processExpiredRestrictions();
+        }, delayTicks);
+    }
+    
+    private void cancelExpiryTask() {
+        if (expiryTaskId != 0) {
+            Bukkit.getScheduler().cancelTask(expiryTaskId);
+            expiryTaskId = 0;
+        }
+    }
+    
+    private void processExpiredRestrictions() {
+        long now = System.currentTimeMillis();
+        int expired = 0;
+        
+        while (true) {
+            PlayerRestriction next;
+            synchronized (expiryQueue) {
+                next = expiryQueue.peek();
+                if (next == null || next.getExpireTime() > now) {
+                    break;
                 }
+                expiryQueue.poll();
             }
             
-            try (java.io.BufferedWriter writer = java.nio.file.Files.newBufferedWriter(
-                    restrictionsFile.toPath(), java.nio.charset.StandardCharsets.UTF_8,
-                    java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.TRUNCATE_EXISTING,
-                    java.nio.file.StandardOpenOption.WRITE)) {
-                writer.write(content.toString());
+            UUID playerUUID = next.getPlayerUUID();
+            PlayerRestriction expiredRestriction = next;
+            PlayerRestrictionSnapshot previous = updatePlayerRestrictions(playerUUID, snapshot -> snapshot.without(expiredRestriction), false);
+            if (!previous.getRestrictions().contains(next)) {
+                synchronized (expiryQueue) {
+                    staleExpiries = Math.max(0, staleExpiries - 1);
+                }
+                continue;
             }
+            invalidateEffectiveRestrictions(playerUUID);
+            expired++;
             
-            plugin.getLogger().fine("Saved " + restrictions.size() + " restrictions to restrictions.yml");
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to save restrictions.yml: " + e.getMessage());
-            plugin.getLogger().severe("Stack trace: " + java.util.Arrays.toString(e.getStackTrace()));
+            Bukkit.getPluginManager().callEvent(new PlayerRestrictionExpireEvent(next));
+        }
+        
+        if (expired > 0) {
+            writeQueue.requestCleanup();
         }
+        
+        scheduleExpiryTask();
+    }
+    
+    public void saveRestrictions() {
+        if (registryLoadFailed) {
+            plugin.getLogger().warning("Not saving restrictions.yml because it could not be loaded.");
+            return;
+        }
+        fileWriter.save(registry);
     }
     
     public boolean addNewRestriction(String name, String type, String actionsStr, List<String> targets, int timeSeconds, boolean isDefault) {
-        if (getRestrictionByName(name) != null) {
+        if (registryLoadFailed || getRestrictionByName(name) != null) {
             return false;
         }
         
@@ -271,7 +578,8 @@ public class RestrictionsManager {
             }
             
             Restriction newRestriction = new Restriction(name, restrictionType, actions, items, entities, commands, timeSeconds, isDefault);
-            restrictions.add(newRestriction);
+            installRegistry(registry.with(newRestriction, plugin.getLogger()));
+            effectiveRestrictions.clear();
             saveRestrictions();
             
             return true;
@@ -281,106 +589,258 @@ public class RestrictionsManager {
         }
     }
     
+    private void installRegistry(RestrictionRegistry next) {
+        registry = next;
+        rebuildCommandMatcher();
+        rebuildRestrictionZones();
+        for (Runnable listener : indexListeners) {
+            listener.run();
+        }
+    }
+    
+    private void rebuildRestrictionZones() {
+        if (spawnProtectManager == null) {
+            return;
+        }
+        restrictionZones = RestrictionZones.build(registry, spawnProtectManager.getChunkMap(), plugin.getLogger());
+    }
+    
+    public boolean appliesTo(Restriction restriction, Player player) {
+        return restrictionZones.appliesTo(restriction, player);
+    }
+    
+    public void rebuildCommandMatcher() {
+        commandMatcher = CommandMatcher.build(registry.getIndex(), plugin.getLogger());
+    }
+    
+    public void scheduleCommandMatcherRebuild() {
+        if (commandMatcherRebuildScheduled || !plugin.isEnabled()) {
+            return;
+        }
+        commandMatcherRebuildScheduled = true;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            commandMatcherRebuildScheduled = false;
+            rebuildCommandMatcher();
+        });
+    }
+    
+    public CommandMatcher getCommandMatcher() {
+        return commandMatcher;
+    }
+    
+    public void addIndexListener(Runnable listener) {
+        indexListeners.add(listener);
+    }
+    
+    public RestrictionIndex getRestrictionIndex() {
+        return registry.getIndex();
+    }
+    
+    public RestrictionRegistry getRegistry() {
+        return registry;
+    }
+    
     public List<Restriction> getRestrictions() {
-        return new ArrayList<>(restrictions);
+        return new ArrayList<>(registry.getRestrictions());
     }
     
     public Restriction getRestrictionByName(String name) {
-        return restrictions.stream()
-            .filter(r -> r.getName().equalsIgnoreCase(name))
-            .findFirst()
-            .orElse(null);
+        return registry.get(name);
     }
     
     public void addPlayerRestriction(UUID playerUUID, String restrictionName, long durationSeconds) {
-        List<PlayerRestriction> playerRests = playerRestrictionsCache.computeIfAbsent(playerUUID, k -> new ArrayList<>());
+        writeQueue.enqueue(applyPlayerRestriction(playerUUID, restrictionName, durationSeconds));
+    }
+    
+    public CompletableFuture<Boolean> addPlayerRestrictions(Collection<UUID> playerUUIDs, String restrictionName, long durationSeconds) {
+        List<RestrictionWrite> writes = new ArrayList<>(playerUUIDs.size());
+        for (UUID playerUUID : playerUUIDs) {
+            writes.add(applyPlayerRestriction(playerUUID, restrictionName, durationSeconds));
+        }
+        return persist(writes);
+    }
+    
+    private RestrictionWrite applyPlayerRestriction(UUID playerUUID, String restrictionName, long durationSeconds) {
+        PlayerRestriction newRestriction = new PlayerRestriction(playerUUID, restrictionName, durationSeconds);
+        PlayerRestrictionSnapshot previous = updatePlayerRestrictions(playerUUID, snapshot -> snapshot.with(newRestriction), true);
         
-        playerRests.removeIf(pr -> pr.getRestrictionName().equalsIgnoreCase(restrictionName));
+        unscheduleExpiry(previous, restrictionName);
+        if (!newRestriction.isPermanent()) {
+            synchronized (expiryQueue) {
+                expiryQueue.add(newRestriction);
+            }
+            scheduleExpiryTask();
+        }
         
-        PlayerRestriction newRestriction = new PlayerRestriction(playerUUID, restrictionName, durationSeconds);
-        playerRests.add(newRestriction);
+        invalidateEffectiveRestrictions(playerUUID);
         
         boolean isPermanent = durationSeconds == -1;
         long expireTime = isPermanent ? Long.MAX_VALUE : System.currentTimeMillis() + (durationSeconds * 1000L);
-        storageProvider.savePlayerRestriction(playerUUID, restrictionName, expireTime, isPermanent);
+        return RestrictionWrite.save(playerUUID, restrictionName, expireTime, isPermanent);
     }
     
     public long getPlayerRestrictionTime(UUID playerUUID, String restrictionName) {
-        List<PlayerRestriction> playerRests = playerRestrictionsCache.get(playerUUID);
-        if (playerRests != null) {
-            for (PlayerRestriction pr : playerRests) {
-                if (pr.getRestrictionName().equalsIgnoreCase(restrictionName) && !pr.isExpired()) {
-                    return pr.getDurationSeconds();
-                }
+        PlayerRestriction pr = getPlayerRestrictionSnapshot(playerUUID).findActive(restrictionName);
+        return pr != null ? pr.getDurationSeconds() : -1;
+    }
+    
+    public void removePlayerRestriction(UUID playerUUID, String restrictionName) {
+        writeQueue.enqueue(unapplyPlayerRestriction(playerUUID, restrictionName));
+    }
+    
+    public CompletableFuture<Boolean> removePlayerRestrictions(Collection<UUID> playerUUIDs, String restrictionName) {
+        Restriction restriction = getRestrictionByName(restrictionName);
+        List<RestrictionWrite> writes = new ArrayList<>(playerUUIDs.size());
+        for (UUID playerUUID : playerUUIDs) {
+            boolean hasDefaultRestriction = restriction != null && shouldApplyDefaultRestriction(playerUUID, restriction);
+            writes.add(unapplyPlayerRestriction(playerUUID, restrictionName));
+            if (hasDefaultRestriction) {
+                writes.add(overrideDefaultRestriction(playerUUID, restriction));
             }
         }
-        return -1;
+        return persist(writes);
     }
     
-    public void removePlayerRestriction(UUID playerUUID, String restrictionName) {
-        List<PlayerRestriction> playerRests = playerRestrictionsCache.get(playerUUID);
-        if (playerRests != null) {
-            playerRests.removeIf(pr -> pr.getRestrictionName().equalsIgnoreCase(restrictionName));
-            if (playerRests.isEmpty()) {
-                playerRestrictionsCache.remove(playerUUID);
+    public CompletableFuture<Boolean> removeAllPlayerRestrictions(Collection<UUID> playerUUIDs) {
+        List<RestrictionWrite> writes = new ArrayList<>();
+        for (UUID playerUUID : playerUUIDs) {
+            for (PlayerRestriction pr : getPlayerRestrictions(playerUUID)) {
+                writes.add(unapplyPlayerRestriction(playerUUID, pr.getRestrictionName()));
+            }
+            for (Restriction restriction : getActiveDefaultRestrictions(playerUUID)) {
+                writes.add(overrideDefaultRestriction(playerUUID, restriction));
             }
         }
-        
-        storageProvider.removePlayerRestriction(playerUUID, restrictionName);
+        return persist(writes);
     }
     
-    public void cancelDefaultRestriction(UUID playerUUID, String restrictionName) {
-        cancelledDefaultRestrictions.computeIfAbsent(playerUUID, k -> new HashSet<>()).add(restrictionName);
+    private RestrictionWrite unapplyPlayerRestriction(UUID playerUUID, String restrictionName) {
+        PlayerRestrictionSnapshot previous = updatePlayerRestrictions(playerUUID, snapshot -> snapshot.without(restrictionName), true);
+        unscheduleExpiry(previous, restrictionName);
+        invalidateEffectiveRestrictions(playerUUID);
+        return RestrictionWrite.remove(playerUUID, restrictionName);
     }
     
-    public void removeCancelledDefaultRestriction(UUID playerUUID, String restrictionName) {
-        Set<String> cancelled = cancelledDefaultRestrictions.get(playerUUID);
-        if (cancelled != null) {
-            cancelled.remove(restrictionName);
-            if (cancelled.isEmpty()) {
-                cancelledDefaultRestrictions.remove(playerUUID);
-            }
+    private CompletableFuture<Boolean> persist(List<RestrictionWrite> writes) {
+        writes.removeIf(Objects::isNull);
+        return writeQueue.enqueueAll(writes);
+    }
+    
+    private void enqueue(RestrictionWrite write) {
+        if (write != null) {
+            writeQueue.enqueue(write);
         }
     }
     
-    public void clearAllCancelledDefaultRestrictions(UUID playerUUID) {
-        cancelledDefaultRestrictions.remove(playerUUID);
+    public PlayerRestrictionSnapshot getPlayerRestrictionSnapshot(UUID playerUUID) {
+        PlayerRestrictionSnapshot snapshot = playerRestrictionsCache.get(playerUUID);
+        if (snapshot == null) {
+            if (Bukkit.isPrimaryThread()) {
+                whenResident(playerUUID, null);
+                return PlayerRestrictionSnapshot.EMPTY;
+            }
+            snapshot = loadResident(playerUUID);
+        }
+        return snapshot != null ? snapshot : PlayerRestrictionSnapshot.EMPTY;
     }
     
-    public boolean hasPlayerRestriction(UUID playerUUID, String restrictionName) {
-        List<PlayerRestriction> playerRests = playerRestrictionsCache.get(playerUUID);
-        if (playerRests != null) {
-            for (PlayerRestriction pr : playerRests) {
-                if (pr.getRestrictionName().equalsIgnoreCase(restrictionName) && !pr.isExpired()) {
-                    return true;
+    private PlayerRestrictionSnapshot updatePlayerRestrictions(UUID playerUUID, UnaryOperator<PlayerRestrictionSnapshot> update,
+                                                               boolean loadIfAbsent) {
+        while (true) {
+            PlayerRestrictionSnapshot current = playerRestrictionsCache.get(playerUUID);
+            if (current == null && loadIfAbsent) {
+                if (Bukkit.isPrimaryThread()) {
+                    deferChange(playerUUID, () -> updatePlayerRestrictions(playerUUID, update, true));
+                    return PlayerRestrictionSnapshot.EMPTY;
                 }
+                current = loadResident(playerUUID);
+            }
+            if (current == null) {
+                return PlayerRestrictionSnapshot.EMPTY;
+            }
+            
+            PlayerRestrictionSnapshot next = update.apply(current);
+            if (next == current || playerRestrictionsCache.replace(playerUUID, current, next)) {
+                return current;
             }
         }
-        return false;
     }
     
-    private long getPlayerPlayTimeSeconds(UUID playerUUID) {
-        Player onlinePlayer = Bukkit.getPlayer(playerUUID);
-        if (onlinePlayer != null) {
-            try {
-                int ticks = onlinePlayer.getStatistic(Statistic.PLAY_ONE_MINUTE);
-                return ticks / 20L;
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to get playtime for player " + playerUUID + ": " + e.getMessage());
+    private void unscheduleExpiry(PlayerRestrictionSnapshot previous, String restrictionName) {
+        int stale = 0;
+        for (PlayerRestriction pr : previous.getRestrictions()) {
+            if (!pr.isPermanent() && pr.getRestrictionName().equalsIgnoreCase(restrictionName)) {
+                stale++;
             }
         }
-        
-        org.bukkit.OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(playerUUID);
-        if (offlinePlayer instanceof Player) {
-            try {
-                int ticks = ((Player) offlinePlayer).getStatistic(Statistic.PLAY_ONE_MINUTE);
-                return ticks / 20L;
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to get playtime for offline player " + playerUUID + ": " + e.getMessage());
+        markExpiriesStale(stale);
+    }
+    
+    private void markExpiriesStale(int count) {
+        if (count == 0) {
+            return;
+        }
+        synchronized (expiryQueue) {
+            staleExpiries += count;
+            if (staleExpiries >= MIN_STALE_EXPIRIES && staleExpiries * 2 > expiryQueue.size()) {
+                expiryQueue.removeIf(pr -> !isExpiryLive(pr));
+                staleExpiries = 0;
             }
         }
-        
-        return 0;
+    }
+    
+    private boolean isExpiryLive(PlayerRestriction pr) {
+        PlayerRestrictionSnapshot snapshot = playerRestrictionsCache.get(pr.getPlayerUUID());
+        if (snapshot != null) {
+            return snapshot.getRestrictions().contains(pr);
+        }
+        synchronized (residentLoads) {
+            return residentLoads.containsKey(pr.getPlayerUUID());
+        }
+    }
+    
+    public void cancelDefaultRestriction(UUID playerUUID, String restrictionName) {
+        Restriction restriction = getRestrictionByName(restrictionName);
+        if (restriction != null) {
+            enqueue(overrideDefaultRestriction(playerUUID, restriction));
+        }
+    }
+    
+    private RestrictionWrite overrideDefaultRestriction(UUID playerUUID, Restriction restriction) {
+        int restrictionId = restriction.getId();
+        return writeOverrides(playerUUID, snapshot -> snapshot.withOverride(restrictionId));
+    }
+    
+    public void removeCancelledDefaultRestriction(UUID playerUUID, String restrictionName) {
+        Restriction restriction = getRestrictionByName(restrictionName);
+        if (restriction != null) {
+            int restrictionId = restriction.getId();
+            enqueue(writeOverrides(playerUUID, snapshot -> snapshot.withoutOverride(restrictionId)));
+        }
+    }
+    
+    public void clearAllCancelledDefaultRestrictions(UUID playerUUID) {
+        enqueue(writeOverrides(playerUUID, PlayerRestrictionSnapshot::withoutOverrides));
+    }
+    
+    private RestrictionWrite writeOverrides(UUID playerUUID, UnaryOperator<PlayerRestrictionSnapshot> update) {
+        if (Bukkit.isPrimaryThread() && !playerRestrictionsCache.containsKey(playerUUID)) {
+            deferChange(playerUUID, () -> enqueue(writeOverrides(playerUUID, update)));
+            return null;
+        }
+        PlayerRestrictionSnapshot previous = updatePlayerRestrictions(playerUUID, update, true);
+        invalidateEffectiveRestrictions(playerUUID);
+        PlayerRestrictionSnapshot current = playerRestrictionsCache.get(playerUUID);
+        BitSet overrides = (current != null ? current : update.apply(previous)).getOverrides();
+        return RestrictionWrite.overrides(playerUUID, StoredPlayerRestrictions.encodeOverrides(overrides));
+    }
+    
+    public boolean hasPlayerRestriction(UUID playerUUID, String restrictionName) {
+        return getPlayerRestrictionSnapshot(playerUUID).findActive(restrictionName) != null;
+    }
+    
+    private long getPlayerPlayTimeSeconds(UUID playerUUID) {
+        return playtimeTracker.getPlaytimeSeconds(playerUUID);
     }
     
     public boolean shouldApplyDefaultRestriction(UUID playerUUID, Restriction restriction) {
@@ -392,8 +852,7 @@ public class RestrictionsManager {
             return false;
         }
         
-        Set<String> cancelled = cancelledDefaultRestrictions.get(playerUUID);
-        if (cancelled != null && cancelled.contains(restriction.getName())) {
+        if (getPlayerRestrictionSnapshot(playerUUID).isOverridden(restriction.getId())) {
             return false;
         }
         
@@ -433,33 +892,90 @@ public class RestrictionsManager {
     }
     
     public long getRestrictionRemainingTime(UUID playerUUID, String restrictionName) {
-        List<PlayerRestriction> playerRests = getPlayerRestrictions(playerUUID);
-        for (PlayerRestriction pr : playerRests) {
-            if (pr.getRestrictionName().equalsIgnoreCase(restrictionName)) {
-                return pr.getRemainingSeconds();
-            }
+        PlayerRestriction pr = getPlayerRestrictionSnapshot(playerUUID).findActive(restrictionName);
+        if (pr != null) {
+            return pr.getRemainingSeconds();
         }
         
         return getDefaultRestrictionRemainingTime(playerUUID, restrictionName);
     }
     
     public boolean isRestricted(UUID playerUUID, Restriction restriction) {
+        EffectiveRestrictions effective = getEffectiveRestrictions(playerUUID);
+        if (effective != null) {
+            return effective.contains(restriction.getId());
+        }
+        return computeRestricted(playerUUID, restriction);
+    }
+    
+    private boolean computeRestricted(UUID playerUUID, Restriction restriction) {
         return hasPlayerRestriction(playerUUID, restriction.getName()) || 
                shouldApplyDefaultRestriction(playerUUID, restriction);
     }
     
-    public List<PlayerRestriction> getPlayerRestrictions(UUID playerUUID) {
-        List<PlayerRestriction> playerRests = playerRestrictionsCache.get(playerUUID);
-        if (playerRests != null) {
-            playerRests.removeIf(PlayerRestriction::isExpired);
-            return new ArrayList<>(playerRests);
+    private EffectiveRestrictions getEffectiveRestrictions(UUID playerUUID) {
+        EffectiveRestrictions effective = effectiveRestrictions.get(playerUUID);
+        if (effective != null && !effective.isStale(System.nanoTime())) {
+            return effective;
+        }
+        
+        if (Bukkit.getPlayer(playerUUID) == null) {
+            effectiveRestrictions.remove(playerUUID);
+            return null;
+        }
+        
+        effective = computeEffectiveRestrictions(playerUUID);
+        if (playerRestrictionsCache.containsKey(playerUUID)) {
+            effectiveRestrictions.put(playerUUID, effective);
         }
-        return new ArrayList<>();
+        return effective;
+    }
+    
+    private EffectiveRestrictions computeEffectiveRestrictions(UUID playerUUID) {
+        BitSet restrictionIds = new BitSet();
+        long validForMillis = Long.MAX_VALUE;
+        long playTimeSeconds = -1;
+        
+        for (Restriction restriction : registry.getRestrictions()) {
+            if (computeRestricted(playerUUID, restriction)) {
+                restrictionIds.set(restriction.getId());
+            }
+            
+            if (restriction.isDefault() && restriction.getTimeSeconds() > 0) {
+                if (playTimeSeconds < 0) {
+                    playTimeSeconds = getPlayerPlayTimeSeconds(playerUUID);
+                }
+                long remaining = restriction.getTimeSeconds() - playTimeSeconds;
+                if (remaining > 0) {
+                    validForMillis = Math.min(validForMillis, remaining * 1000L);
+                }
+            }
+        }
+        
+        PlayerRestrictionSnapshot snapshot = playerRestrictionsCache.get(playerUUID);
+        if (snapshot != null) {
+            long now = System.currentTimeMillis();
+            for (PlayerRestriction pr : snapshot.getRestrictions()) {
+                if (!pr.isPermanent() && pr.getExpireTime() > now) {
+                    validForMillis = Math.min(validForMillis, pr.getExpireTime() - now);
+                }
+            }
+        }
+        
+        return new EffectiveRestrictions(restrictionIds, validForMillis);
+    }
+    
+    private void invalidateEffectiveRestrictions(UUID playerUUID) {
+        effectiveRestrictions.remove(playerUUID);
+    }
+    
+    public List<PlayerRestriction> getPlayerRestrictions(UUID playerUUID) {
+        return getPlayerRestrictionSnapshot(playerUUID).getActiveRestrictions();
     }
     
     public List<Restriction> getActiveDefaultRestrictions(UUID playerUUID) {
         List<Restriction> activeDefaults = new ArrayList<>();
-        for (Restriction restriction : restrictions) {
+        for (Restriction restriction : registry.getRestrictions()) {
             if (shouldApplyDefaultRestriction(playerUUID, restriction)) {
                 activeDefaults.add(restriction);
             }
@@ -467,14 +983,39 @@ public class RestrictionsManager {
         return activeDefaults;
     }
     
-    public void reloadRestrictions() {
-        loadRestrictions();
+    public void updateFileWatcher() {
+        boolean enabled = plugin.getConfig().getBoolean("restrictions.watch-file", false);
+        if (enabled && fileWatcher == null) {
+            fileWatcher = new RestrictionsFileWatcher(plugin, restrictionsFile, this::reloadRestrictions);
+            fileWatcher.start();
+        } else if (!enabled && fileWatcher != null) {
+            fileWatcher.stop();
+            fileWatcher = null;
+        }
     }
     
     public void onDisable() {
-        if (cleanupTaskId != 0) {
-            Bukkit.getScheduler().cancelTask(cleanupTaskId);
+        if (fileWatcher != null) {
+            fileWatcher.stop();
+            fileWatcher = null;
         }
+        cancelExpiryTask();
+        metrics.shutdown();
+        restrictionLoader.shutdown();
+        writeQueue.shutdown();
+        fileWriter.shutdown();
+    }
+    
+    public PlayerRestrictionLoader getRestrictionLoader() {
+        return restrictionLoader;
+    }
+    
+    public RestrictionMetrics getMetrics() {
+        return metrics;
+    }
+    
+    public RestrictionWriteQueue getWriteQueue() {
+        return writeQueue;
     }
     
     public MessageManager getMessageManager() {
@@ -484,4 +1025,18 @@ public class RestrictionsManager {
     public long getServerStartTime() {
         return serverStartTime;
     }
-}
\ No newline at end of file
+    
+    private static final class DeferredChange implements Runnable {
+        
+        private final Runnable change;
+        
+        private DeferredChange(Runnable change) {
+            this.change = change;
+        }
+        
+        @Override
+        public void run() {
+            change.run();
+        }
+    }
+}
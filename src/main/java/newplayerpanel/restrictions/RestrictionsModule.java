@@ -1,45 +1,62 @@
 package newplayerpanel.restrictions;
 
 import newplayerpanel.messages.MessageManager;
+import newplayerpanel.spawnprotect.SpawnProtectManager;
 import newplayerpanel.storage.StorageProvider;
+import newplayerpanel.util.PermissionCache;
+import newplayerpanel.util.PlayerNameIndex;
+import newplayerpanel.util.PlaytimeTracker;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class RestrictionsModule {
     
     private final RestrictionsManager restrictionsManager;
+    private final RestrictionsListener restrictionsListener;
     
-    public RestrictionsModule(JavaPlugin plugin, StorageProvider storageProvider, MessageManager messageManager) {
-        this.restrictionsManager = new RestrictionsManager(plugin, storageProvider, messageManager);
+    public RestrictionsModule(JavaPlugin plugin, StorageProvider storageProvider, MessageManager messageManager,
+                              PlaytimeTracker playtimeTracker, PermissionCache permissionCache,
+                              SpawnProtectManager spawnProtectManager, PlayerNameIndex playerNameIndex) {
+        this.restrictionsManager = new RestrictionsManager(plugin, storageProvider, messageManager, playtimeTracker,
+            spawnProtectManager);
         restrictionsManager.loadRestrictions();
+        restrictionsManager.updateFileWatcher();
         
-        plugin.getServer().getPluginManager().registerEvents(
-            new RestrictionsListener(restrictionsManager, messageManager, plugin), plugin);
+        this.restrictionsListener = new RestrictionsListener(restrictionsManager, messageManager, permissionCache, plugin);
+        plugin.getServer().getPluginManager().registerEvents(restrictionsListener, plugin);
+        
+        OfflinePlayerResolver offlinePlayerResolver = new OfflinePlayerResolver(plugin, playerNameIndex, restrictionsManager);
         
         if (plugin.getCommand("restrict") != null) {
-            RestrictCommand restrictCommand = new RestrictCommand(restrictionsManager, messageManager);
+            RestrictCommand restrictCommand = new RestrictCommand(plugin, restrictionsManager, messageManager, spawnProtectManager,
+                offlinePlayerResolver);
             plugin.getCommand("restrict").setExecutor(restrictCommand);
             plugin.getCommand("restrict").setTabCompleter(restrictCommand);
         }
         
         if (plugin.getCommand("unrestrict") != null) {
-            UnrestrictCommand unrestrictCommand = new UnrestrictCommand(restrictionsManager, messageManager);
+            UnrestrictCommand unrestrictCommand = new UnrestrictCommand(plugin, restrictionsManager, messageManager, spawnProtectManager,
+                offlinePlayerResolver);
             plugin.getCommand("unrestrict").setExecutor(unrestrictCommand);
             plugin.getCommand("unrestrict").setTabCompleter(unrestrictCommand);
         }
         
         if (plugin.getCommand("restrictions") != null) {
             plugin.getCommand("restrictions").setExecutor(
-                new RestrictionsCommand(restrictionsManager, messageManager));
+                new RestrictionsCommand(restrictionsManager, messageManager, offlinePlayerResolver));
         }
     }
     
     public void reload() {
         restrictionsManager.reloadRestrictions();
+        restrictionsManager.updateFileWatcher();
+        restrictionsManager.getMetrics().reload();
+        restrictionsListener.reloadFeedback();
     }
     
     public void onDisable() {
-        restrictionsManager.onDisable();
+        restrictionsListener.stopArmorCheckTask();
         restrictionsManager.saveRestrictions();
+        restrictionsManager.onDisable();
     }
     
     public RestrictionsManager getRestrictionsManager() {
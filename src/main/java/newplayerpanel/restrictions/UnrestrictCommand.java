@@ -1,25 +1,35 @@
 package newplayerpanel.restrictions;
 
 import newplayerpanel.messages.MessageManager;
+import newplayerpanel.spawnprotect.SpawnProtectManager;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class UnrestrictCommand implements CommandExecutor, TabCompleter {
     
+    private final JavaPlugin plugin;
     private final RestrictionsManager restrictionsManager;
     private final MessageManager messageManager;
+    private final SpawnProtectManager spawnProtectManager;
+    private final OfflinePlayerResolver offlinePlayerResolver;
     
-    public UnrestrictCommand(RestrictionsManager restrictionsManager, MessageManager messageManager) {
+    public UnrestrictCommand(JavaPlugin plugin, RestrictionsManager restrictionsManager, MessageManager messageManager,
+                             SpawnProtectManager spawnProtectManager, OfflinePlayerResolver offlinePlayerResolver) {
+        this.plugin = plugin;
         this.restrictionsManager = restrictionsManager;
         this.messageManager = messageManager;
+        this.spawnProtectManager = spawnProtectManager;
+        this.offlinePlayerResolver = offlinePlayerResolver;
     }
     
     @Override
@@ -31,24 +41,47 @@ public class UnrestrictCommand implements CommandExecutor, TabCompleter {
         
         if (args.length < 2) {
             sender.sendMessage(messageManager.get("restrictions-usage"));
+            sender.sendMessage(messageManager.get("restrictions-usage-targets"));
             return true;
         }
         
-        Player targetPlayer = Bukkit.getPlayer(args[0]);
-        if (targetPlayer == null) {
-            sender.sendMessage(messageManager.get("player-not-found"));
+        RestrictionTargets targets = RestrictionTargets.resolve(args[0], spawnProtectManager);
+        
+        if (targets.isBulk()) {
+            if (targets.needsLookup()) {
+                String target = args[0];
+                String restrictionArg = args[1];
+                offlinePlayerResolver.resolveAll(targets.getUnknown(), (found, missing) ->
+                    unrestrictMany(sender, target, targets.withResolved(found, missing), restrictionArg));
+                return true;
+            }
+            return unrestrictMany(sender, args[0], targets, args[1]);
+        }
+        
+        if (targets.getPlayers().isEmpty()) {
+            String targetName = args[0];
+            String restrictionArg = args[1];
+            offlinePlayerResolver.resolve(targetName,
+                playerUUID -> unrestrictOne(sender, playerUUID, offlinePlayerResolver.getName(playerUUID, targetName), restrictionArg),
+                () -> sender.sendMessage(messageManager.get("player-not-found")));
             return true;
         }
         
-        UUID playerUUID = targetPlayer.getUniqueId();
+        Player targetPlayer = targets.getPlayers().get(0);
+        unrestrictOne(sender, targetPlayer.getUniqueId(), targetPlayer.getName(), args[1]);
+        return true;
+    }
+    
+    private void unrestrictOne(CommandSender sender, UUID playerUUID, String playerName, String restrictionArg) {
+        Player targetPlayer = Bukkit.getPlayer(playerUUID);
         
-        if (args[1].equalsIgnoreCase("all")) {
+        if (restrictionArg.equalsIgnoreCase("all")) {
             List<PlayerRestriction> active = restrictionsManager.getPlayerRestrictions(playerUUID);
             List<Restriction> activeDefaults = restrictionsManager.getActiveDefaultRestrictions(playerUUID);
             
             if (active.isEmpty() && activeDefaults.isEmpty()) {
                 sender.sendMessage(messageManager.get("restrictions-no-active"));
-                return true;
+                return;
             }
             
             active.forEach(pr -> restrictionsManager.removePlayerRestriction(playerUUID, pr.getRestrictionName()));
@@ -58,14 +91,16 @@ public class UnrestrictCommand implements CommandExecutor, TabCompleter {
             }
             
             sender.sendMessage(messageManager.get("restrictions-removed-all"));
-            targetPlayer.sendMessage(messageManager.get("restrictions-notify-removed-all"));
+            if (targetPlayer != null) {
+                targetPlayer.sendMessage(messageManager.get("restrictions-notify-removed-all"));
+            }
         } else {
-            String restrictionName = args[1];
+            String restrictionName = restrictionArg;
             Restriction restriction = restrictionsManager.getRestrictionByName(restrictionName);
             
             if (restriction == null) {
                 sender.sendMessage(messageManager.get("restrictions-not-found"));
-                return true;
+                return;
             }
             
             boolean hasPlayerRestriction = restrictionsManager.hasPlayerRestriction(playerUUID, restrictionName);
@@ -73,7 +108,7 @@ public class UnrestrictCommand implements CommandExecutor, TabCompleter {
             
             if (!hasPlayerRestriction && !hasDefaultRestriction) {
                 sender.sendMessage(messageManager.get("restrictions-no-active"));
-                return true;
+                return;
             }
             
             if (hasPlayerRestriction) {
@@ -84,10 +119,56 @@ public class UnrestrictCommand implements CommandExecutor, TabCompleter {
                 restrictionsManager.cancelDefaultRestriction(playerUUID, restrictionName);
             }
             
-            sender.sendMessage(messageManager.get("restrictions-removed", "player", targetPlayer.getName()));
-            targetPlayer.sendMessage(messageManager.get("restrictions-notify-removed", "restriction", restrictionName));
+            sender.sendMessage(messageManager.get("restrictions-removed", "player", playerName));
+            if (targetPlayer != null) {
+                targetPlayer.sendMessage(messageManager.get("restrictions-notify-removed", "restriction", restrictionName));
+            }
+        }
+    }
+    
+    private boolean unrestrictMany(CommandSender sender, String target, RestrictionTargets targets, String restrictionArg) {
+        boolean all = restrictionArg.equalsIgnoreCase("all");
+        Restriction restriction = all ? null : restrictionsManager.getRestrictionByName(restrictionArg);
+        if (!all && restriction == null) {
+            sender.sendMessage(messageManager.get("restrictions-not-found"));
+            return true;
+        }
+        
+        if (!targets.getUnknown().isEmpty()) {
+            sender.sendMessage(messageManager.get("restrictions-bulk-unknown", "players", String.join(", ", targets.getUnknown())));
+        }
+        if (targets.getPlayerUUIDs().isEmpty()) {
+            sender.sendMessage(messageManager.get("restrictions-bulk-no-targets", "target", target));
+            return true;
+        }
+        
+        long start = System.nanoTime();
+        int count = targets.getPlayerUUIDs().size();
+        CompletableFuture<Boolean> persisted;
+        
+        if (all) {
+            persisted = restrictionsManager.removeAllPlayerRestrictions(targets.getPlayerUUIDs());
+            for (Player player : targets.getPlayers()) {
+                player.sendMessage(messageManager.get("restrictions-notify-removed-all"));
+            }
+        } else {
+            persisted = restrictionsManager.removePlayerRestrictions(targets.getPlayerUUIDs(), restriction.getName());
+            for (Player player : targets.getPlayers()) {
+                player.sendMessage(messageManager.get("restrictions-notify-removed", "restriction", restriction.getName()));
+            }
         }
         
+        persisted.thenAccept(success -> Bukkit.getScheduler().runTask(plugin, () -> {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+            if (!success) {
+                sender.sendMessage(messageManager.get("restrictions-bulk-failed", "count", count));
+            } else if (all) {
+                sender.sendMessage(messageManager.get("restrictions-bulk-removed-all", "count", count, "ms", elapsedMillis));
+            } else {
+                sender.sendMessage(messageManager.get("restrictions-bulk-removed",
+                    "restriction", restriction.getName(), "count", count, "ms", elapsedMillis));
+            }
+        }));
         return true;
     }
     
@@ -96,11 +177,7 @@ public class UnrestrictCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
         
         if (args.length == 1) {
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                if (player.getName().toLowerCase().startsWith(args[0].toLowerCase())) {
-                    completions.add(player.getName());
-                }
-            }
+            completions.addAll(RestrictionTargets.complete(args[0], spawnProtectManager));
         } else if (args.length == 2) {
             Player targetPlayer = Bukkit.getPlayer(args[0]);
             if (targetPlayer != null) {
@@ -2,6 +2,7 @@ package newplayerpanel.spawnprotect;
 
 import newplayerpanel.messages.MessageManager;
 import newplayerpanel.util.ActionBarUtil;
+import newplayerpanel.util.PermissionCache;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.*;
@@ -20,14 +21,16 @@ public class SpawnProtectListener implements Listener {
     
     private final SpawnProtectManager manager;
     private final MessageManager messageManager;
+    private final PermissionCache permissionCache;
     
-    public SpawnProtectListener(SpawnProtectManager manager, MessageManager messageManager) {
+    public SpawnProtectListener(SpawnProtectManager manager, MessageManager messageManager, PermissionCache permissionCache) {
         this.manager = manager;
         this.messageManager = messageManager;
+        this.permissionCache = permissionCache;
     }
     
     private boolean canBypass(Player player) {
-        if (player.hasPermission("newplayerpanel.spawnprotect.bypass")) {
+        if (permissionCache.hasPermission(player, PermissionCache.SPAWNPROTECT_BYPASS)) {
             return true;
         }
         return manager.hasPlaytimeBypass(player);
@@ -1,8 +1,8 @@
 package newplayerpanel.spawnprotect;
 
+import newplayerpanel.util.PlaytimeTracker;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.Statistic;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -13,24 +13,34 @@ import org.bukkit.plugin.java.JavaPlugin;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 public class SpawnProtectManager {
 
     private final JavaPlugin plugin;
+    private final PlaytimeTracker playtimeTracker;
     private final Map<String, SpawnZone> zones;
+    private final List<Runnable> zoneListeners = new CopyOnWriteArrayList<>();
+    private volatile ZoneChunkMap chunkMap = ZoneChunkMap.empty();
     private File configFile;
     private FileConfiguration config;
     private boolean enabled;
     private long bypassAfterPlaytime;
 
-    public SpawnProtectManager(JavaPlugin plugin) {
+    public SpawnProtectManager(JavaPlugin plugin, PlaytimeTracker playtimeTracker) {
         this.plugin = plugin;
+        this.playtimeTracker = playtimeTracker;
         this.zones = new HashMap<>();
         this.enabled = true;
     }
 
     public void loadZones() {
+        loadZoneDefinitions();
+        rebuildChunkMap();
+    }
+
+    private void loadZoneDefinitions() {
         zones.clear();
 
         configFile = new File(plugin.getDataFolder(), "spawnprotect.yml");
@@ -179,7 +189,15 @@ public class SpawnProtectManager {
         return types;
     }
 
+    private void rebuildChunkMap() {
+        chunkMap = ZoneChunkMap.build(zones.values(), plugin.getLogger());
+        for (Runnable listener : zoneListeners) {
+            listener.run();
+        }
+    }
+
     public boolean saveZones() {
+        rebuildChunkMap();
         if (config == null || configFile == null) return false;
 
         config.set("bypass-after-playtime", bypassAfterPlaytime);
@@ -270,6 +288,14 @@ public class SpawnProtectManager {
         return zones.get(name.toLowerCase());
     }
 
+    public ZoneChunkMap getChunkMap() {
+        return chunkMap;
+    }
+
+    public void addZoneListener(Runnable listener) {
+        zoneListeners.add(listener);
+    }
+
     public SpawnZone getZoneAt(Location location) {
         if (!enabled || location == null) return null;
         for (SpawnZone zone : zones.values()) {
@@ -354,7 +380,7 @@ public class SpawnProtectManager {
     }
 
     public long getPlayerPlaytimeSeconds(Player player) {
-        return player.getStatistic(Statistic.PLAY_ONE_MINUTE) / 20;
+        return playtimeTracker.getPlaytimeSeconds(player);
     }
 
     public long getRemainingTimeForBypass(Player player) {
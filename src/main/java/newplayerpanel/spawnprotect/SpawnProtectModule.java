@@ -1,19 +1,22 @@
 package newplayerpanel.spawnprotect;
 
 import newplayerpanel.messages.MessageManager;
+import newplayerpanel.util.PermissionCache;
+import newplayerpanel.util.PlaytimeTracker;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class SpawnProtectModule {
     
     private final SpawnProtectManager manager;
     
-    public SpawnProtectModule(JavaPlugin plugin, MessageManager messageManager) {
-        this.manager = new SpawnProtectManager(plugin);
+    public SpawnProtectModule(JavaPlugin plugin, MessageManager messageManager, PlaytimeTracker playtimeTracker,
+                              PermissionCache permissionCache) {
+        this.manager = new SpawnProtectManager(plugin, playtimeTracker);
         manager.loadZones();
         
         if (manager.isEnabled()) {
             plugin.getServer().getPluginManager().registerEvents(
-                new SpawnProtectListener(manager, messageManager), plugin);
+                new SpawnProtectListener(manager, messageManager, permissionCache), plugin);
         }
     }
     
@@ -0,0 +1,211 @@
+package newplayerpanel.spawnprotect;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+public final class ZoneChunkMap {
+
+    public static final int MAX_ZONES = 63;
+
+    private static final int MAX_CELLS = 1 << 18;
+    private static final ZoneChunkMap EMPTY = new ZoneChunkMap(new SpawnZone[0], Collections.emptyMap(), Collections.emptyMap());
+
+    private final SpawnZone[] zones;
+    private final Map<String, Integer> indexByName;
+    private final Map<String, WorldTable> worlds;
+
+    private ZoneChunkMap(SpawnZone[] zones, Map<String, Integer> indexByName, Map<String, WorldTable> worlds) {
+        this.zones = zones;
+        this.indexByName = indexByName;
+        this.worlds = worlds;
+    }
+
+    public static ZoneChunkMap empty() {
+        return EMPTY;
+    }
+
+    public static ZoneChunkMap build(Collection<SpawnZone> source, Logger logger) {
+        List<SpawnZone> indexed = new ArrayList<>();
+        Map<String, Integer> indexByName = new HashMap<>();
+        Map<String, List<SpawnZone>> byWorld = new HashMap<>();
+        for (SpawnZone zone : source) {
+            if (indexed.size() >= MAX_ZONES) {
+                logger.warning("Spawn Protect: Only the first " + MAX_ZONES + " zones can be used by zone-scoped restrictions, ignoring '"
+                    + zone.getName() + "'.");
+                continue;
+            }
+            indexByName.put(zone.getName().toLowerCase(), indexed.size());
+            indexed.add(zone);
+            byWorld.computeIfAbsent(zone.getWorldName(), k -> new ArrayList<>()).add(zone);
+        }
+
+        Map<String, WorldTable> worlds = new HashMap<>();
+        for (Map.Entry<String, List<SpawnZone>> entry : byWorld.entrySet()) {
+            worlds.put(entry.getKey(), WorldTable.build(entry.getValue(), indexByName));
+        }
+        return new ZoneChunkMap(indexed.toArray(new SpawnZone[0]), indexByName, worlds);
+    }
+
+    public int indexOf(String zoneName) {
+        Integer index = indexByName.get(zoneName.toLowerCase());
+        return index != null ? index : -1;
+    }
+
+    public boolean isInAny(Location location, long zoneMask) {
+        World world = location.getWorld();
+        if (world == null || zoneMask == 0L) {
+            return false;
+        }
+        WorldTable table = worlds.get(world.getName());
+        if (table == null) {
+            return false;
+        }
+
+        long candidates = table.unbounded & zoneMask;
+        int x = (location.getBlockX() >> 4) - table.minChunkX;
+        int z = (location.getBlockZ() >> 4) - table.minChunkZ;
+        if (x >= 0 && x < table.width && z >= 0 && z < table.depth) {
+            int cell = z * table.width + x;
+            if ((table.full[cell] & zoneMask) != 0L) {
+                return true;
+            }
+            candidates |= table.partial[cell] & zoneMask;
+        }
+
+        while (candidates != 0L) {
+            if (zones[Long.numberOfTrailingZeros(candidates)].contains(location)) {
+                return true;
+            }
+            candidates &= candidates - 1;
+        }
+        return false;
+    }
+
+    public int size() {
+        return zones.length;
+    }
+
+    private static final class WorldTable {
+
+        private final int minChunkX;
+        private final int minChunkZ;
+        private final int width;
+        private final int depth;
+        private final long[] full;
+        private final long[] partial;
+        private final long unbounded;
+
+        private WorldTable(int minChunkX, int minChunkZ, int width, int depth, long[] full, long[] partial, long unbounded) {
+            this.minChunkX = minChunkX;
+            this.minChunkZ = minChunkZ;
+            this.width = width;
+            this.depth = depth;
+            this.full = full;
+            this.partial = partial;
+            this.unbounded = unbounded;
+        }
+
+        private static WorldTable build(List<SpawnZone> zones, Map<String, Integer> indexByName) {
+            int minChunkX = Integer.MAX_VALUE;
+            int minChunkZ = Integer.MAX_VALUE;
+            int maxChunkX = Integer.MIN_VALUE;
+            int maxChunkZ = Integer.MIN_VALUE;
+            for (SpawnZone zone : zones) {
+                double[] bounds = bounds(zone);
+                minChunkX = Math.min(minChunkX, chunk(bounds[0]));
+                minChunkZ = Math.min(minChunkZ, chunk(bounds[1]));
+                maxChunkX = Math.max(maxChunkX, chunk(bounds[2]));
+                maxChunkZ = Math.max(maxChunkZ, chunk(bounds[3]));
+            }
+
+            long width = (long) maxChunkX - minChunkX + 1;
+            long depth = (long) maxChunkZ - minChunkZ + 1;
+            if (width <= 0 || depth <= 0 || width * depth > MAX_CELLS) {
+                long unbounded = 0L;
+                for (SpawnZone zone : zones) {
+                    unbounded |= 1L << indexByName.get(zone.getName().toLowerCase());
+                }
+                return new WorldTable(0, 0, 0, 0, new long[0], new long[0], unbounded);
+            }
+
+            int w = (int) width;
+            int d = (int) depth;
+            long[] full = new long[w * d];
+            long[] partial = new long[w * d];
+            for (SpawnZone zone : zones) {
+                long bit = 1L << indexByName.get(zone.getName().toLowerCase());
+                double[] bounds = bounds(zone);
+                for (int cz = chunk(bounds[1]); cz <= chunk(bounds[3]); cz++) {
+                    for (int cx = chunk(bounds[0]); cx <= chunk(bounds[2]); cx++) {
+                        int cell = (cz - minChunkZ) * w + (cx - minChunkX);
+                        if (coversChunk(zone, cx, cz)) {
+                            full[cell] |= bit;
+                        } else if (touchesChunk(zone, cx, cz)) {
+                            partial[cell] |= bit;
+                        }
+                    }
+                }
+            }
+            return new WorldTable(minChunkX, minChunkZ, w, d, full, partial, 0L);
+        }
+
+        private static int chunk(double coordinate) {
+            return (int) Math.floor(Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, coordinate))) >> 4;
+        }
+
+        private static double[] bounds(SpawnZone zone) {
+            switch (zone.getShapeType()) {
+                case CIRCLE:
+                    return new double[] {zone.getCenterX() - zone.getRadius(), zone.getCenterZ() - zone.getRadius(),
+                        zone.getCenterX() + zone.getRadius(), zone.getCenterZ() + zone.getRadius()};
+                case RECT:
+                    return new double[] {zone.getMinX(), zone.getMinZ(), zone.getMaxX(), zone.getMaxZ()};
+                default:
+                    double minX = Double.MAX_VALUE;
+                    double minZ = Double.MAX_VALUE;
+                    double maxX = -Double.MAX_VALUE;
+                    double maxZ = -Double.MAX_VALUE;
+                    for (double[] point : zone.getPoints()) {
+                        minX = Math.min(minX, point[0]);
+                        minZ = Math.min(minZ, point[1]);
+                        maxX = Math.max(maxX, point[0]);
+                        maxZ = Math.max(maxZ, point[1]);
+                    }
+                    return zone.getPoints().isEmpty() ? new double[] {0, 0, -1, -1} : new double[] {minX, minZ, maxX, maxZ};
+            }
+        }
+
+        private static boolean coversChunk(SpawnZone zone, int cx, int cz) {
+            double x0 = cx << 4;
+            double z0 = cz << 4;
+            double x1 = x0 + 16;
+            double z1 = z0 + 16;
+            switch (zone.getShapeType()) {
+                case CIRCLE:
+                    double dx = Math.max(Math.abs(x0 - zone.getCenterX()), Math.abs(x1 - zone.getCenterX()));
+                    double dz = Math.max(Math.abs(z0 - zone.getCenterZ()), Math.abs(z1 - zone.getCenterZ()));
+                    return dx * dx + dz * dz <= zone.getRadius() * zone.getRadius();
+                case RECT:
+                    return x0 >= zone.getMinX() && x1 <= zone.getMaxX() && z0 >= zone.getMinZ() && z1 <= zone.getMaxZ();
+                default:
+                    return false;
+            }
+        }
+
+        private static boolean touchesChunk(SpawnZone zone, int cx, int cz) {
+            double x0 = cx << 4;
+            double z0 = cz << 4;
+            double x1 = x0 + 16;
+            double z1 = z0 + 16;
+            if (zone.getShapeType() == SpawnZone.ShapeType.CIRCLE) {
+                double dx = zone.getCenterX() - Math.max(x0, Math.min(zone.getCenterX(), x1));
+                double dz = zone.getCenterZ() - Math.max(z0, Math.min(zone.getCenterZ(), z1));
+                return dx * dx + dz * dz <= zone.getRadius() * zone.getRadius();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package newplayerpanel.storage;
+
+import newplayerpanel.restrictions.PlayerRestriction;
+import newplayerpanel.villagertracker.VillagerDeathRecord;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class AsyncStorage {
+
+    private static final String THREAD_PREFIX = "NewPlayerPanel-Storage-";
+
+    private final JavaPlugin plugin;
+    private final StorageProvider storage;
+    private final Queue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile ThreadPoolExecutor executor;
+    private int drainTaskId = -1;
+
+    public AsyncStorage(JavaPlugin plugin, StorageProvider storage) {
+        this.plugin = plugin;
+        this.storage = storage;
+    }
+
+    public void start() {
+        if (executor != null) {
+            return;
+        }
+        int threads = Math.max(1, plugin.getConfig().getInt("storage-executor.threads", 4));
+        int capacity = Math.max(1, plugin.getConfig().getInt("storage-executor.queue-capacity", 1000));
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(capacity),
+            threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        drainTaskId = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L).getTaskId();
+    }
+
+    public void shutdown() {
+        ThreadPoolExecutor current = executor;
+        executor = null;
+        if (drainTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(drainTaskId);
+            drainTaskId = -1;
+        }
+
+        if (current != null) {
+            current.shutdown();
+            try {
+                if (!current.awaitTermination(10L, TimeUnit.SECONDS)) {
+                    plugin.getLogger().warning("Storage executor did not finish " + current.getQueue().size() + " pending operations in time.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        drain();
+    }
+
+    public int getQueueDepth() {
+        ThreadPoolExecutor current = executor;
+        return current != null ? current.getQueue().size() + current.getActiveCount() : 0;
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public StorageProvider getProvider() {
+        return storage;
+    }
+
+    public CompletableFuture<Boolean> messagesExist(String language) {
+        return supply(provider -> provider.messagesExist(language));
+    }
+
+    public CompletableFuture<Void> saveMessage(String language, String key, String value) {
+        return run(provider -> provider.saveMessage(language, key, value));
+    }
+
+    public CompletableFuture<Map<String, String>> loadMessages(String language) {
+        return supply(provider -> provider.loadMessages(language));
+    }
+
+    public CompletableFuture<Void> addVillagerDeath(VillagerDeathRecord record) {
+        return run(provider -> provider.addVillagerDeath(record));
+    }
+
+    public CompletableFuture<List<VillagerDeathRecord>> getVillagerDeaths() {
+        return supply(StorageProvider::getVillagerDeaths);
+    }
+
+    public CompletableFuture<List<VillagerDeathRecord>> getVillagerDeathsByPlayer(String playerName) {
+        return supply(provider -> provider.getVillagerDeathsByPlayer(playerName));
+    }
+
+    public CompletableFuture<List<VillagerDeathRecord>> getVillagerDeathsByCoords(double x, double y, double z, String world) {
+        return supply(provider -> provider.getVillagerDeathsByCoords(x, y, z, world));
+    }
+
+    public CompletableFuture<List<VillagerDeathRecord>> getVillagerDeathsByPlayerAndCoords(String playerName, double x, double y,
+                                                                                          double z, String world) {
+        return supply(provider -> provider.getVillagerDeathsByPlayerAndCoords(playerName, x, y, z, world));
+    }
+
+    public CompletableFuture<Integer> clearOldVillagerDeaths(long olderThanTimestamp) {
+        return supply(provider -> provider.clearOldVillagerDeaths(olderThanTimestamp));
+    }
+
+    public CompletableFuture<Void> savePlayerRestriction(UUID playerUUID, String restrictionName, long expireTime, boolean isPermanent) {
+        return run(provider -> provider.savePlayerRestriction(playerUUID, restrictionName, expireTime, isPermanent));
+    }
+
+    public CompletableFuture<Void> removePlayerRestriction(UUID playerUUID, String restrictionName) {
+        return run(provider -> provider.removePlayerRestriction(playerUUID, restrictionName));
+    }
+
+    public CompletableFuture<Void> writePlayerRestrictions(List<RestrictionWrite> writes) {
+        return run(provider -> provider.writePlayerRestrictions(writes));
+    }
+
+    public CompletableFuture<Map<UUID, List<PlayerRestriction>>> loadPlayerRestrictions() {
+        return supply(StorageProvider::loadPlayerRestrictions);
+    }
+
+    public CompletableFuture<Map<UUID, StoredPlayerRestrictions>> loadPlayerRestrictionData(Collection<UUID> playerUUIDs) {
+        return supply(provider -> provider.loadPlayerRestrictionData(playerUUIDs));
+    }
+
+    public CompletableFuture<Void> cleanupExpiredRestrictions() {
+        return run(StorageProvider::cleanupExpiredRestrictions);
+    }
+
+    private CompletableFuture<Void> run(Consumer<StorageProvider> operation) {
+        return supply(provider -> {
+            operation.accept(provider);
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> supply(Function<StorageProvider, T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ThreadPoolExecutor current = executor;
+        if (current == null) {
+            rejected.incrementAndGet();
+            future.completeExceptionally(new RejectedExecutionException("Storage executor is not running"));
+            return future;
+        }
+
+        try {
+            current.execute(() -> {
+                try {
+                    T result = operation.apply(storage);
+                    completions.add(() -> future.complete(result));
+                } catch (Throwable t) {
+                    completions.add(() -> future.completeExceptionally(t));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            plugin.getLogger().fine("Storage executor queue is full, rejecting operation.");
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void drain() {
+        Runnable completion;
+        while ((completion = completions.poll()) != null) {
+            try {
+                completion.run();
+            } catch (Exception e) {
+                plugin.getLogger().warning("Storage callback failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        if (Runtime.version().feature() >= 21) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, THREAD_PREFIX, 1L);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+            }
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, THREAD_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
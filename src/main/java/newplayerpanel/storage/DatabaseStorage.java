@@ -14,9 +14,14 @@ import java.util.*;
 
 public class DatabaseStorage implements StorageProvider {
     
+    private static final int MAX_IN_PARAMETERS = 400;
+    
     private final JavaPlugin plugin;
     private final String storageType;
     private HikariDataSource dataSource;
+    private HikariDataSource readDataSource;
+    private SqliteProfile sqliteProfile;
+    private VillagerDeathWriteQueue deathQueue;
     private final Gson gson = new Gson();
     private boolean isMySQL = false;
     
@@ -70,14 +75,27 @@ public class DatabaseStorage implements StorageProvider {
             
             hikariConfig.setJdbcUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
             hikariConfig.setDriverClassName("org.sqlite.JDBC");
+            hikariConfig.setPoolName("NewPlayerPanel-Writer");
             hikariConfig.setMaximumPoolSize(1);
             hikariConfig.setMinimumIdle(1);
             hikariConfig.setConnectionTimeout(30000);
+            sqliteProfile = SqliteProfile.load(plugin.getConfig(), plugin.getLogger());
+            sqliteProfile.apply(hikariConfig, false);
+            plugin.getLogger().info("SQLite profile: " + sqliteProfile.describe());
         }
         
         try {
             dataSource = new HikariDataSource(hikariConfig);
             createTables();
+            readDataSource = isMySQL || sqliteProfile.getReadPoolSize() == 0
+                ? dataSource : createLocalReadPool(hikariConfig.getJdbcUrl());
+            FileConfiguration config = plugin.getConfig();
+            deathQueue = new VillagerDeathWriteQueue(plugin, this,
+                config.getInt("villager-tracker.write-queue.batch-size", 100),
+                config.getInt("villager-tracker.write-queue.capacity", 5000),
+                config.getLong("villager-tracker.write-queue.flush-delay-ms", 250L),
+                config.getInt("villager-tracker.write-queue.max-retries", 3));
+            deathQueue.start();
             plugin.getLogger().info("Database connection established successfully.");
             return true;
         } catch (SQLException e) {
@@ -98,6 +116,18 @@ public class DatabaseStorage implements StorageProvider {
         }
     }
     
+    private HikariDataSource createLocalReadPool(String jdbcUrl) {
+        HikariConfig readConfig = new HikariConfig();
+        readConfig.setJdbcUrl(jdbcUrl);
+        readConfig.setDriverClassName("org.sqlite.JDBC");
+        readConfig.setPoolName("NewPlayerPanel-Reader");
+        readConfig.setMaximumPoolSize(sqliteProfile.getReadPoolSize());
+        readConfig.setMinimumIdle(1);
+        readConfig.setConnectionTimeout(30000);
+        sqliteProfile.apply(readConfig, true);
+        return new HikariDataSource(readConfig);
+    }
+    
     private void addColumnIfNotExists(Connection conn, String tableName, String columnName, String columnDefinition) {
         try {
             if (isMySQL) {
@@ -179,6 +209,13 @@ public class DatabaseStorage implements StorageProvider {
                         INDEX idx_expire_time (expire_time, is_permanent)
                     ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
                 """);
+                
+                stmt.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS npp_restriction_overrides (
+                        player_uuid VARCHAR(36) NOT NULL PRIMARY KEY,
+                        override_mask TEXT NOT NULL
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+                """);
             } else {
                 stmt.executeUpdate("""
                     CREATE TABLE IF NOT EXISTS npp_villager_deaths (
@@ -220,12 +257,25 @@ public class DatabaseStorage implements StorageProvider {
                 
                 stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_player_uuid ON npp_player_restrictions(player_uuid)");
                 stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_expire_time ON npp_player_restrictions(expire_time, is_permanent)");
+                
+                stmt.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS npp_restriction_overrides (
+                        player_uuid TEXT NOT NULL PRIMARY KEY,
+                        override_mask TEXT NOT NULL
+                    )
+                """);
             }
         }
     }
     
     @Override
     public void shutdown() {
+        if (deathQueue != null) {
+            deathQueue.shutdown();
+        }
+        if (readDataSource != null && readDataSource != dataSource && !readDataSource.isClosed()) {
+            readDataSource.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             plugin.getLogger().info("Database connection closed.");
@@ -248,35 +298,51 @@ public class DatabaseStorage implements StorageProvider {
     
     @Override
     public void addVillagerDeath(VillagerDeathRecord record) {
+        deathQueue.enqueue(record);
+    }
+    
+    void insertVillagerDeaths(List<VillagerDeathRecord> records) throws SQLException {
         String sql = "INSERT INTO npp_villager_deaths (player_name, player_uuid, villager_type, world, x, y, z, timestamp, enchantments, trades, villager_level) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, record.getPlayerName());
-            stmt.setString(2, record.getPlayerUUID());
-            stmt.setString(3, record.getVillagerType());
-            stmt.setString(4, record.getWorld());
-            stmt.setDouble(5, Math.round(record.getX()));
-            stmt.setDouble(6, Math.round(record.getY()));
-            stmt.setDouble(7, Math.round(record.getZ()));
-            stmt.setLong(8, record.getTimestamp());
-            
-            String enchantmentsJson = record.getEnchantments().isEmpty() ? null : gson.toJson(record.getEnchantments());
-            stmt.setString(9, enchantmentsJson);
-            
-            String tradesJson = record.getTrades().isEmpty() ? null : gson.toJson(record.getTrades());
-            stmt.setString(10, tradesJson);
-            
-            stmt.setInt(11, record.getVillagerLevel());
-            
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Error saving villager death: " + e.getMessage());
-            plugin.getLogger().fine("Stack trace: " + java.util.Arrays.toString(e.getStackTrace()));
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (VillagerDeathRecord record : records) {
+                    stmt.setString(1, record.getPlayerName());
+                    stmt.setString(2, record.getPlayerUUID());
+                    stmt.setString(3, record.getVillagerType());
+                    stmt.setString(4, record.getWorld());
+                    stmt.setDouble(5, Math.round(record.getX()));
+                    stmt.setDouble(6, Math.round(record.getY()));
+                    stmt.setDouble(7, Math.round(record.getZ()));
+                    stmt.setLong(8, record.getTimestamp());
+                    
+                    String enchantmentsJson = record.getEnchantments().isEmpty() ? null : gson.toJson(record.getEnchantments());
+                    stmt.setString(9, enchantmentsJson);
+                    
+                    String tradesJson = record.getTrades().isEmpty() ? null : gson.toJson(record.getTrades());
+                    stmt.setString(10, tradesJson);
+                    
+                    stmt.setInt(11, record.getVillagerLevel());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
         }
     }
     
+    public VillagerDeathWriteQueue getVillagerDeathQueue() {
+        return deathQueue;
+    }
+    
     @Override
     public List<VillagerDeathRecord> getVillagerDeaths() {
         return queryVillagerDeaths("SELECT * FROM npp_villager_deaths ORDER BY timestamp DESC");
@@ -317,6 +383,7 @@ public class DatabaseStorage implements StorageProvider {
     
     @Override
     public int clearOldVillagerDeaths(long olderThanTimestamp) {
+        deathQueue.flush();
         try (Connection conn = dataSource.getConnection()) {
             int deleted;
             try (PreparedStatement stmt = conn.prepareStatement(
@@ -341,8 +408,9 @@ public class DatabaseStorage implements StorageProvider {
     }
     
     private List<VillagerDeathRecord> queryVillagerDeaths(String sql, Object... params) {
+        deathQueue.flush();
         List<VillagerDeathRecord> records = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             for (int i = 0; i < params.length; i++) {
                 stmt.setObject(i + 1, params[i]);
@@ -401,14 +469,22 @@ public class DatabaseStorage implements StorageProvider {
         return records;
     }
     
-    @Override
-    public void savePlayerRestriction(UUID playerUUID, String restrictionName, long expireTime, boolean isPermanent) {
-        String sql = isMySQL 
+    private String upsertRestrictionSql() {
+        return isMySQL 
             ? "INSERT INTO npp_player_restrictions (player_uuid, restriction_name, expire_time, is_permanent) VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE expire_time = VALUES(expire_time), is_permanent = VALUES(is_permanent)"
             : "INSERT OR REPLACE INTO npp_player_restrictions (player_uuid, restriction_name, expire_time, is_permanent) VALUES (?, ?, ?, ?)";
-        
+    }
+    
+    private String upsertOverridesSql() {
+        return isMySQL 
+            ? "INSERT INTO npp_restriction_overrides (player_uuid, override_mask) VALUES (?, ?) ON DUPLICATE KEY UPDATE override_mask = VALUES(override_mask)"
+            : "INSERT OR REPLACE INTO npp_restriction_overrides (player_uuid, override_mask) VALUES (?, ?)";
+    }
+    
+    @Override
+    public void savePlayerRestriction(UUID playerUUID, String restrictionName, long expireTime, boolean isPermanent) {
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(upsertRestrictionSql())) {
             stmt.setString(1, playerUUID.toString());
             stmt.setString(2, restrictionName);
             stmt.setLong(3, expireTime);
@@ -432,31 +508,167 @@ public class DatabaseStorage implements StorageProvider {
         }
     }
     
+    @Override
+    public void writePlayerRestrictions(List<RestrictionWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement upsert = conn.prepareStatement(upsertRestrictionSql());
+                 PreparedStatement delete = conn.prepareStatement(
+                     "DELETE FROM npp_player_restrictions WHERE player_uuid = ? AND restriction_name = ?");
+                 PreparedStatement upsertOverrides = conn.prepareStatement(upsertOverridesSql());
+                 PreparedStatement deleteOverrides = conn.prepareStatement(
+                     "DELETE FROM npp_restriction_overrides WHERE player_uuid = ?")) {
+                int upserts = 0;
+                int deletes = 0;
+                int overrideUpserts = 0;
+                int overrideDeletes = 0;
+                for (RestrictionWrite write : writes) {
+                    if (write.isOverrides()) {
+                        if (write.isRemoval()) {
+                            deleteOverrides.setString(1, write.getPlayerUUID().toString());
+                            deleteOverrides.addBatch();
+                            overrideDeletes++;
+                        } else {
+                            upsertOverrides.setString(1, write.getPlayerUUID().toString());
+                            upsertOverrides.setString(2, write.getOverrideMask());
+                            upsertOverrides.addBatch();
+                            overrideUpserts++;
+                        }
+                    } else if (write.isRemoval()) {
+                        delete.setString(1, write.getPlayerUUID().toString());
+                        delete.setString(2, write.getRestrictionName());
+                        delete.addBatch();
+                        deletes++;
+                    } else {
+                        upsert.setString(1, write.getPlayerUUID().toString());
+                        upsert.setString(2, write.getRestrictionName());
+                        upsert.setLong(3, write.getExpireTime());
+                        upsert.setInt(4, write.isPermanent() ? 1 : 0);
+                        upsert.addBatch();
+                        upserts++;
+                    }
+                }
+                if (deletes > 0) {
+                    delete.executeBatch();
+                }
+                if (upserts > 0) {
+                    upsert.executeBatch();
+                }
+                if (overrideDeletes > 0) {
+                    deleteOverrides.executeBatch();
+                }
+                if (overrideUpserts > 0) {
+                    upsertOverrides.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error writing " + writes.size() + " player restrictions: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public Map<UUID, List<PlayerRestriction>> loadPlayerRestrictions() {
         Map<UUID, List<PlayerRestriction>> restrictions = new HashMap<>();
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(
                  "SELECT * FROM npp_player_restrictions WHERE expire_time > ? OR is_permanent = 1")) {
             stmt.setLong(1, System.currentTimeMillis());
             ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                UUID playerUUID = UUID.fromString(rs.getString("player_uuid"));
-                String restrictionName = rs.getString("restriction_name");
-                long expireTime = rs.getLong("expire_time");
-                boolean isPermanent = rs.getInt("is_permanent") == 1;
-                
-                long durationSeconds = isPermanent ? -1 : Math.max(0, (expireTime - System.currentTimeMillis()) / 1000L);
-                
-                restrictions.computeIfAbsent(playerUUID, k -> new ArrayList<>())
-                    .add(new PlayerRestriction(playerUUID, restrictionName, durationSeconds));
-            }
+            readPlayerRestrictions(rs, restrictions);
         } catch (SQLException e) {
             plugin.getLogger().warning("Error loading player restrictions: " + e.getMessage());
         }
         return restrictions;
     }
     
+    @Override
+    public Map<UUID, StoredPlayerRestrictions> loadPlayerRestrictionData(Collection<UUID> playerUUIDs) {
+        Map<UUID, StoredPlayerRestrictions> result = new HashMap<>();
+        if (playerUUIDs.isEmpty()) {
+            return result;
+        }
+        
+        List<UUID> uuids = new ArrayList<>(playerUUIDs);
+        Map<UUID, List<PlayerRestriction>> restrictions = new HashMap<>();
+        Map<UUID, BitSet> overrides = new HashMap<>();
+        try (Connection conn = readDataSource.getConnection()) {
+            for (int start = 0; start < uuids.size(); start += MAX_IN_PARAMETERS) {
+                List<UUID> chunk = uuids.subList(start, Math.min(uuids.size(), start + MAX_IN_PARAMETERS));
+                String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT player_uuid, restriction_name, expire_time, is_permanent, NULL AS override_mask " +
+                        "FROM npp_player_restrictions " +
+                        "WHERE player_uuid IN (" + placeholders + ") AND (expire_time > ? OR is_permanent = 1) " +
+                        "UNION ALL " +
+                        "SELECT player_uuid, NULL, 0, 0, override_mask FROM npp_restriction_overrides " +
+                        "WHERE player_uuid IN (" + placeholders + ")")) {
+                    int index = 1;
+                    for (UUID uuid : chunk) {
+                        stmt.setString(index++, uuid.toString());
+                    }
+                    stmt.setLong(index++, System.currentTimeMillis());
+                    for (UUID uuid : chunk) {
+                        stmt.setString(index++, uuid.toString());
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            String mask = rs.getString("override_mask");
+                            if (mask != null) {
+                                overrides.put(UUID.fromString(rs.getString("player_uuid")),
+                                    StoredPlayerRestrictions.decodeOverrides(mask));
+                            } else {
+                                readPlayerRestriction(rs, restrictions);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Error loading restrictions for " + uuids.size() + " players: " + e.getMessage());
+            throw new IllegalStateException("Failed to load player restrictions", e);
+        }
+        
+        for (UUID uuid : uuids) {
+            List<PlayerRestriction> playerRestrictions = restrictions.get(uuid);
+            BitSet playerOverrides = overrides.get(uuid);
+            if (playerRestrictions != null || playerOverrides != null) {
+                result.put(uuid, new StoredPlayerRestrictions(
+                    playerRestrictions != null ? playerRestrictions : Collections.emptyList(),
+                    playerOverrides != null ? playerOverrides : new BitSet()));
+            }
+        }
+        return result;
+    }
+    
+    private void readPlayerRestrictions(ResultSet rs, Map<UUID, List<PlayerRestriction>> restrictions) throws SQLException {
+        while (rs.next()) {
+            readPlayerRestriction(rs, restrictions);
+        }
+    }
+    
+    private void readPlayerRestriction(ResultSet rs, Map<UUID, List<PlayerRestriction>> restrictions) throws SQLException {
+        UUID playerUUID = UUID.fromString(rs.getString("player_uuid"));
+        String restrictionName = rs.getString("restriction_name");
+        long expireTime = rs.getLong("expire_time");
+        boolean isPermanent = rs.getInt("is_permanent") == 1;
+        
+        long durationSeconds = isPermanent ? -1 : Math.max(0, (expireTime - System.currentTimeMillis()) / 1000L);
+        
+        restrictions.computeIfAbsent(playerUUID, k -> new ArrayList<>())
+            .add(new PlayerRestriction(playerUUID, restrictionName, durationSeconds));
+    }
+    
     @Override
     public void cleanupExpiredRestrictions() {
         long currentTime = System.currentTimeMillis();
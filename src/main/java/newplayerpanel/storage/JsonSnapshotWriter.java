@@ -0,0 +1,151 @@
+package newplayerpanel.storage;
+
+import com.google.gson.Gson;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class JsonSnapshotWriter {
+
+    private final JavaPlugin plugin;
+    private final Gson gson;
+    private final long intervalMillis;
+    private final Object queueLock = new Object();
+    private final Object writeLock = new Object();
+    private final Map<File, Supplier<?>> dirty = new LinkedHashMap<>();
+    private boolean running;
+    private Thread worker;
+
+    public JsonSnapshotWriter(JavaPlugin plugin, Gson gson, long intervalMillis) {
+        this.plugin = plugin;
+        this.gson = gson;
+        this.intervalMillis = Math.max(0L, intervalMillis);
+    }
+
+    public void start() {
+        synchronized (queueLock) {
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        worker = new Thread(this::runWorker, "NewPlayerPanel-JsonWriter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void shutdown() {
+        Thread thread;
+        synchronized (queueLock) {
+            running = false;
+            queueLock.notifyAll();
+            thread = worker;
+            worker = null;
+        }
+
+        if (thread != null) {
+            try {
+                thread.join(10000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+    }
+
+    public void markDirty(File file, Supplier<?> snapshot) {
+        boolean direct;
+        synchronized (queueLock) {
+            dirty.put(file, snapshot);
+            direct = !running;
+            if (!direct) {
+                queueLock.notifyAll();
+            }
+        }
+
+        if (direct) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        synchronized (writeLock) {
+            Map<File, Supplier<?>> batch;
+            synchronized (queueLock) {
+                batch = new LinkedHashMap<>(dirty);
+                dirty.clear();
+            }
+
+            for (Map.Entry<File, Supplier<?>> entry : batch.entrySet()) {
+                File file = entry.getKey();
+                try {
+                    write(file, gson.toJson(entry.getValue().get()));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Error saving " + file.getName() + ": " + e.getMessage());
+                    synchronized (queueLock) {
+                        dirty.putIfAbsent(file, entry.getValue());
+                    }
+                }
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            synchronized (queueLock) {
+                while (running && dirty.isEmpty()) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                long deadline = System.currentTimeMillis() + intervalMillis;
+                long remaining;
+                while (running && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        queueLock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            flush();
+        }
+    }
+
+    private void write(File file, String content) throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
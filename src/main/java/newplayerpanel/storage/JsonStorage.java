@@ -11,23 +11,31 @@ import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class JsonStorage implements StorageProvider {
     
     private final JavaPlugin plugin;
     private final Gson gson;
+    private final JsonSnapshotWriter snapshotWriter;
     private File dataFolder;
     private File messagesFile;
     private File villagerDeathsFile;
     private File restrictionsFile;
-    private Map<String, Map<String, String>> messagesCache = new HashMap<>();
+    private File overridesFile;
+    private VillagerDeathJournal villagerDeathJournal;
+    private final Object villagerDeathsLock = new Object();
+    private volatile Map<String, Map<String, String>> messagesCache = Collections.emptyMap();
     private List<VillagerDeathRecord> villagerDeathsCache = new ArrayList<>();
-    private Map<UUID, List<RestrictionData>> restrictionsCache = new HashMap<>();
+    private volatile Map<UUID, List<RestrictionData>> restrictionsCache = Collections.emptyMap();
+    private volatile Map<UUID, String> overridesCache = Collections.emptyMap();
     
     public JsonStorage(JavaPlugin plugin) {
         this.plugin = plugin;
         this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.snapshotWriter = new JsonSnapshotWriter(plugin, gson,
+            plugin.getConfig().getLong("json-storage.flush-interval-ms", 1000L));
     }
     
     @Override
@@ -41,8 +49,13 @@ public class JsonStorage implements StorageProvider {
             messagesFile = new File(dataFolder, "messages.json");
             villagerDeathsFile = new File(dataFolder, "villager_deaths.json");
             restrictionsFile = new File(dataFolder, "restrictions.json");
+            overridesFile = new File(dataFolder, "restriction_overrides.json");
+            villagerDeathJournal = new VillagerDeathJournal(plugin, villagerDeathsFile,
+                new File(dataFolder, "villager_deaths.ndjson"),
+                plugin.getConfig().getInt("villager-tracker.journal.compact-after", 1000));
             
             loadAllData();
+            snapshotWriter.start();
             
             plugin.getLogger().info("JSON storage initialized: " + dataFolder.getAbsolutePath());
             return true;
@@ -57,171 +70,263 @@ public class JsonStorage implements StorageProvider {
         if (messagesFile.exists()) {
             try (Reader reader = new InputStreamReader(new FileInputStream(messagesFile), StandardCharsets.UTF_8)) {
                 Type type = new TypeToken<Map<String, Map<String, String>>>(){}.getType();
-                messagesCache = gson.fromJson(reader, type);
-                if (messagesCache == null) messagesCache = new HashMap<>();
+                Map<String, Map<String, String>> loaded = gson.fromJson(reader, type);
+                Map<String, Map<String, String>> messages = new HashMap<>();
+                if (loaded != null) {
+                    loaded.forEach((language, values) -> {
+                        if (values != null) {
+                            messages.put(language, Collections.unmodifiableMap(new HashMap<>(values)));
+                        }
+                    });
+                }
+                messagesCache = Collections.unmodifiableMap(messages);
             } catch (Exception e) {
                 plugin.getLogger().warning("Error loading messages.json: " + e.getMessage());
-                messagesCache = new HashMap<>();
+                messagesCache = Collections.emptyMap();
             }
         }
         
-        if (villagerDeathsFile.exists()) {
-            try (Reader reader = new InputStreamReader(new FileInputStream(villagerDeathsFile), StandardCharsets.UTF_8)) {
-                Type type = new TypeToken<List<VillagerDeathRecord>>(){}.getType();
-                villagerDeathsCache = gson.fromJson(reader, type);
-                if (villagerDeathsCache == null) villagerDeathsCache = new ArrayList<>();
-            } catch (Exception e) {
-                plugin.getLogger().warning("Error loading villager_deaths.json: " + e.getMessage());
-                villagerDeathsCache = new ArrayList<>();
+        try {
+            villagerDeathsCache = villagerDeathJournal.load();
+            if (villagerDeathJournal.isCompactionDue()) {
+                villagerDeathJournal.compact(new ArrayList<>(villagerDeathsCache));
             }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error loading villager_deaths.json: " + e.getMessage());
+            villagerDeathsCache = new ArrayList<>();
         }
         
         if (restrictionsFile.exists()) {
             try (Reader reader = new InputStreamReader(new FileInputStream(restrictionsFile), StandardCharsets.UTF_8)) {
                 Type type = new TypeToken<Map<String, List<RestrictionData>>>(){}.getType();
                 Map<String, List<RestrictionData>> loaded = gson.fromJson(reader, type);
-                restrictionsCache = new HashMap<>();
+                Map<UUID, List<RestrictionData>> restrictions = new HashMap<>();
                 if (loaded != null) {
                     loaded.forEach((key, value) -> {
                         try {
-                            restrictionsCache.put(UUID.fromString(key), value);
+                            if (value != null && !value.isEmpty()) {
+                                restrictions.put(UUID.fromString(key), Collections.unmodifiableList(new ArrayList<>(value)));
+                            }
                         } catch (Exception ignored) {}
                     });
                 }
+                restrictionsCache = Collections.unmodifiableMap(restrictions);
             } catch (Exception e) {
                 plugin.getLogger().warning("Error loading restrictions.json: " + e.getMessage());
-                restrictionsCache = new HashMap<>();
+                restrictionsCache = Collections.emptyMap();
+            }
+        }
+        
+        if (overridesFile.exists()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(overridesFile), StandardCharsets.UTF_8)) {
+                Type type = new TypeToken<Map<String, String>>(){}.getType();
+                Map<String, String> loaded = gson.fromJson(reader, type);
+                Map<UUID, String> overrides = new HashMap<>();
+                if (loaded != null) {
+                    loaded.forEach((key, value) -> {
+                        try {
+                            if (value != null && !value.isEmpty()) {
+                                overrides.put(UUID.fromString(key), value);
+                            }
+                        } catch (Exception ignored) {}
+                    });
+                }
+                overridesCache = Collections.unmodifiableMap(overrides);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error loading restriction_overrides.json: " + e.getMessage());
+                overridesCache = Collections.emptyMap();
             }
         }
     }
     
     @Override
     public void shutdown() {
-        saveAllData();
+        snapshotWriter.shutdown();
+        villagerDeathJournal.shutdown();
         plugin.getLogger().info("JSON storage closed.");
     }
     
-    private void saveAllData() {
-        saveMessages();
-        saveVillagerDeaths();
-        saveRestrictions();
-    }
-    
     private void saveMessages() {
-        try (Writer writer = new OutputStreamWriter(new FileOutputStream(messagesFile), StandardCharsets.UTF_8)) {
-            gson.toJson(messagesCache, writer);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error saving messages.json: " + e.getMessage());
-        }
-    }
-    
-    private void saveVillagerDeaths() {
-        try (Writer writer = new OutputStreamWriter(new FileOutputStream(villagerDeathsFile), StandardCharsets.UTF_8)) {
-            gson.toJson(villagerDeathsCache, writer);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error saving villager_deaths.json: " + e.getMessage());
-        }
+        snapshotWriter.markDirty(messagesFile, () -> messagesCache);
     }
     
     private void saveRestrictions() {
-        try (Writer writer = new OutputStreamWriter(new FileOutputStream(restrictionsFile), StandardCharsets.UTF_8)) {
+        snapshotWriter.markDirty(restrictionsFile, () -> {
             Map<String, List<RestrictionData>> toSave = new HashMap<>();
             restrictionsCache.forEach((uuid, list) -> toSave.put(uuid.toString(), list));
-            gson.toJson(toSave, writer);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error saving restrictions.json: " + e.getMessage());
-        }
+            return toSave;
+        });
+    }
+    
+    private void saveOverrides() {
+        snapshotWriter.markDirty(overridesFile, () -> {
+            Map<String, String> toSave = new HashMap<>();
+            overridesCache.forEach((uuid, mask) -> toSave.put(uuid.toString(), mask));
+            return toSave;
+        });
     }
     
     @Override
     public boolean messagesExist(String language) {
-        return messagesCache.containsKey(language) && !messagesCache.get(language).isEmpty();
+        Map<String, String> messages = messagesCache.get(language);
+        return messages != null && !messages.isEmpty();
     }
     
     @Override
-    public void saveMessage(String language, String key, String value) {
-        messagesCache.computeIfAbsent(language, k -> new HashMap<>()).put(key, value);
+    public synchronized void saveMessage(String language, String key, String value) {
+        Map<String, Map<String, String>> messages = new HashMap<>(messagesCache);
+        Map<String, String> values = new HashMap<>(messages.getOrDefault(language, Collections.emptyMap()));
+        values.put(key, value);
+        messages.put(language, Collections.unmodifiableMap(values));
+        messagesCache = Collections.unmodifiableMap(messages);
         saveMessages();
     }
     
     @Override
     public Map<String, String> loadMessages(String language) {
-        return new HashMap<>(messagesCache.getOrDefault(language, new HashMap<>()));
+        return new HashMap<>(messagesCache.getOrDefault(language, Collections.emptyMap()));
     }
     
     @Override
     public void addVillagerDeath(VillagerDeathRecord record) {
-        villagerDeathsCache.add(record);
-        saveVillagerDeaths();
+        synchronized (villagerDeathsLock) {
+            villagerDeathsCache.add(record);
+            if (villagerDeathJournal.append(record)) {
+                villagerDeathJournal.compact(new ArrayList<>(villagerDeathsCache));
+            }
+        }
     }
     
     @Override
     public List<VillagerDeathRecord> getVillagerDeaths() {
-        return villagerDeathsCache.stream()
-            .sorted((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()))
-            .collect(Collectors.toList());
+        synchronized (villagerDeathsLock) {
+            return villagerDeathsCache.stream()
+                .sorted((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()))
+                .collect(Collectors.toList());
+        }
     }
     
     @Override
     public List<VillagerDeathRecord> getVillagerDeathsByPlayer(String playerName) {
-        return villagerDeathsCache.stream()
-            .filter(r -> r.getPlayerName().equalsIgnoreCase(playerName))
-            .sorted((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()))
-            .collect(Collectors.toList());
+        synchronized (villagerDeathsLock) {
+            return villagerDeathsCache.stream()
+                .filter(r -> r.getPlayerName().equalsIgnoreCase(playerName))
+                .sorted((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()))
+                .collect(Collectors.toList());
+        }
     }
     
     @Override
     public List<VillagerDeathRecord> getVillagerDeathsByCoords(double x, double y, double z, String world) {
-        return villagerDeathsCache.stream()
-            .filter(r -> {
-                if (world != null && !r.getWorld().equalsIgnoreCase(world)) return false;
-                return Math.abs(r.getX() - x) <= 2 && Math.abs(r.getY() - y) <= 2 && Math.abs(r.getZ() - z) <= 2;
-            })
-            .sorted((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()))
-            .collect(Collectors.toList());
+        synchronized (villagerDeathsLock) {
+            return villagerDeathsCache.stream()
+                .filter(r -> {
+                    if (world != null && !r.getWorld().equalsIgnoreCase(world)) return false;
+                    return Math.abs(r.getX() - x) <= 2 && Math.abs(r.getY() - y) <= 2 && Math.abs(r.getZ() - z) <= 2;
+                })
+                .sorted((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()))
+                .collect(Collectors.toList());
+        }
     }
     
     @Override
     public List<VillagerDeathRecord> getVillagerDeathsByPlayerAndCoords(String playerName, double x, double y, double z, String world) {
-        return villagerDeathsCache.stream()
-            .filter(r -> {
-                if (!r.getPlayerName().equalsIgnoreCase(playerName)) return false;
-                if (world != null && !r.getWorld().equalsIgnoreCase(world)) return false;
-                return Math.abs(r.getX() - x) <= 2 && Math.abs(r.getY() - y) <= 2 && Math.abs(r.getZ() - z) <= 2;
-            })
-            .sorted((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()))
-            .collect(Collectors.toList());
+        synchronized (villagerDeathsLock) {
+            return villagerDeathsCache.stream()
+                .filter(r -> {
+                    if (!r.getPlayerName().equalsIgnoreCase(playerName)) return false;
+                    if (world != null && !r.getWorld().equalsIgnoreCase(world)) return false;
+                    return Math.abs(r.getX() - x) <= 2 && Math.abs(r.getY() - y) <= 2 && Math.abs(r.getZ() - z) <= 2;
+                })
+                .sorted((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()))
+                .collect(Collectors.toList());
+        }
     }
     
     @Override
     public int clearOldVillagerDeaths(long olderThanTimestamp) {
-        int originalSize = villagerDeathsCache.size();
-        villagerDeathsCache.removeIf(r -> r.getTimestamp() < olderThanTimestamp);
-        int deleted = originalSize - villagerDeathsCache.size();
-        if (deleted > 0) {
-            saveVillagerDeaths();
+        CompletableFuture<Void> compaction;
+        int deleted;
+        synchronized (villagerDeathsLock) {
+            int originalSize = villagerDeathsCache.size();
+            villagerDeathsCache.removeIf(r -> r.getTimestamp() < olderThanTimestamp);
+            deleted = originalSize - villagerDeathsCache.size();
+            if (deleted == 0) {
+                return 0;
+            }
+            compaction = villagerDeathJournal.compact(new ArrayList<>(villagerDeathsCache));
         }
+        compaction.join();
         return deleted;
     }
     
     @Override
     public void savePlayerRestriction(UUID playerUUID, String restrictionName, long expireTime, boolean isPermanent) {
-        List<RestrictionData> list = restrictionsCache.computeIfAbsent(playerUUID, k -> new ArrayList<>());
-        list.removeIf(r -> r.restrictionName.equalsIgnoreCase(restrictionName));
-        list.add(new RestrictionData(restrictionName, expireTime, isPermanent));
-        saveRestrictions();
+        writePlayerRestrictions(Collections.singletonList(
+            RestrictionWrite.save(playerUUID, restrictionName, expireTime, isPermanent)));
     }
     
     @Override
     public void removePlayerRestriction(UUID playerUUID, String restrictionName) {
-        List<RestrictionData> list = restrictionsCache.get(playerUUID);
-        if (list != null) {
-            list.removeIf(r -> r.restrictionName.equalsIgnoreCase(restrictionName));
-            if (list.isEmpty()) {
-                restrictionsCache.remove(playerUUID);
+        writePlayerRestrictions(Collections.singletonList(RestrictionWrite.remove(playerUUID, restrictionName)));
+    }
+    
+    @Override
+    public synchronized void writePlayerRestrictions(List<RestrictionWrite> writes) {
+        Map<UUID, List<RestrictionData>> restrictions = null;
+        Map<UUID, String> overrides = null;
+        boolean changed = false;
+        boolean overridesChanged = false;
+        
+        for (RestrictionWrite write : writes) {
+            UUID playerUUID = write.getPlayerUUID();
+            String restrictionName = write.getRestrictionName();
+            
+            if (write.isOverrides()) {
+                if (overrides == null) {
+                    overrides = new HashMap<>(overridesCache);
+                }
+                String previous = write.isRemoval()
+                    ? overrides.remove(playerUUID)
+                    : overrides.put(playerUUID, write.getOverrideMask());
+                if (!Objects.equals(previous, write.isRemoval() ? null : write.getOverrideMask())) {
+                    overridesChanged = true;
+                }
+                continue;
+            }
+            
+            if (restrictions == null) {
+                restrictions = new HashMap<>(restrictionsCache);
             }
+            List<RestrictionData> current = restrictions.get(playerUUID);
+            if (write.isRemoval()) {
+                if (current != null) {
+                    List<RestrictionData> list = new ArrayList<>(current);
+                    list.removeIf(r -> r.restrictionName.equalsIgnoreCase(restrictionName));
+                    if (list.isEmpty()) {
+                        restrictions.remove(playerUUID);
+                    } else {
+                        restrictions.put(playerUUID, Collections.unmodifiableList(list));
+                    }
+                    changed = true;
+                }
+            } else {
+                List<RestrictionData> list = current != null ? new ArrayList<>(current) : new ArrayList<>();
+                list.removeIf(r -> r.restrictionName.equalsIgnoreCase(restrictionName));
+                list.add(new RestrictionData(restrictionName, write.getExpireTime(), write.isPermanent()));
+                restrictions.put(playerUUID, Collections.unmodifiableList(list));
+                changed = true;
+            }
+        }
+        
+        if (changed) {
+            restrictionsCache = Collections.unmodifiableMap(restrictions);
             saveRestrictions();
         }
+        if (overridesChanged) {
+            overridesCache = Collections.unmodifiableMap(overrides);
+            saveOverrides();
+        }
     }
     
     @Override
@@ -230,13 +335,7 @@ public class JsonStorage implements StorageProvider {
         long now = System.currentTimeMillis();
         
         restrictionsCache.forEach((uuid, dataList) -> {
-            List<PlayerRestriction> playerList = new ArrayList<>();
-            for (RestrictionData data : dataList) {
-                if (data.isPermanent || data.expireTime > now) {
-                    long durationSeconds = data.isPermanent ? -1 : Math.max(0, (data.expireTime - now) / 1000L);
-                    playerList.add(new PlayerRestriction(uuid, data.restrictionName, durationSeconds));
-                }
-            }
+            List<PlayerRestriction> playerList = toPlayerRestrictions(uuid, dataList, now);
             if (!playerList.isEmpty()) {
                 result.put(uuid, playerList);
             }
@@ -246,31 +345,63 @@ public class JsonStorage implements StorageProvider {
     }
     
     @Override
-    public void cleanupExpiredRestrictions() {
+    public Map<UUID, StoredPlayerRestrictions> loadPlayerRestrictionData(Collection<UUID> playerUUIDs) {
+        Map<UUID, StoredPlayerRestrictions> result = new HashMap<>();
+        Map<UUID, List<RestrictionData>> restrictions = restrictionsCache;
+        Map<UUID, String> overrides = overridesCache;
+        long now = System.currentTimeMillis();
+        
+        for (UUID uuid : playerUUIDs) {
+            List<RestrictionData> dataList = restrictions.get(uuid);
+            String mask = overrides.get(uuid);
+            List<PlayerRestriction> playerList = dataList != null
+                ? toPlayerRestrictions(uuid, dataList, now)
+                : Collections.emptyList();
+            if (!playerList.isEmpty() || mask != null) {
+                result.put(uuid, new StoredPlayerRestrictions(playerList, StoredPlayerRestrictions.decodeOverrides(mask)));
+            }
+        }
+        
+        return result;
+    }
+    
+    private List<PlayerRestriction> toPlayerRestrictions(UUID uuid, List<RestrictionData> dataList, long now) {
+        List<PlayerRestriction> playerList = new ArrayList<>();
+        for (RestrictionData data : dataList) {
+            if (data.isPermanent || data.expireTime > now) {
+                long durationSeconds = data.isPermanent ? -1 : Math.max(0, (data.expireTime - now) / 1000L);
+                playerList.add(new PlayerRestriction(uuid, data.restrictionName, durationSeconds));
+            }
+        }
+        return playerList;
+    }
+    
+    @Override
+    public synchronized void cleanupExpiredRestrictions() {
         long now = System.currentTimeMillis();
         boolean changed = false;
+        Map<UUID, List<RestrictionData>> restrictions = new HashMap<>();
         
-        Iterator<Map.Entry<UUID, List<RestrictionData>>> iter = restrictionsCache.entrySet().iterator();
-        while (iter.hasNext()) {
-            Map.Entry<UUID, List<RestrictionData>> entry = iter.next();
-            int before = entry.getValue().size();
-            entry.getValue().removeIf(r -> !r.isPermanent && r.expireTime < now);
-            if (entry.getValue().size() != before) changed = true;
-            if (entry.getValue().isEmpty()) {
-                iter.remove();
+        for (Map.Entry<UUID, List<RestrictionData>> entry : restrictionsCache.entrySet()) {
+            List<RestrictionData> list = new ArrayList<>(entry.getValue());
+            if (list.removeIf(r -> !r.isPermanent && r.expireTime < now)) {
                 changed = true;
             }
+            if (!list.isEmpty()) {
+                restrictions.put(entry.getKey(), Collections.unmodifiableList(list));
+            }
         }
         
         if (changed) {
+            restrictionsCache = Collections.unmodifiableMap(restrictions);
             saveRestrictions();
         }
     }
     
     private static class RestrictionData {
-        String restrictionName;
-        long expireTime;
-        boolean isPermanent;
+        final String restrictionName;
+        final long expireTime;
+        final boolean isPermanent;
         
         RestrictionData(String restrictionName, long expireTime, boolean isPermanent) {
             this.restrictionName = restrictionName;
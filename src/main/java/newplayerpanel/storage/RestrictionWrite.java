@@ -0,0 +1,63 @@
+package newplayerpanel.storage;
+
+import java.util.UUID;
+
+public class RestrictionWrite {
+
+    private final UUID playerUUID;
+    private final String restrictionName;
+    private final long expireTime;
+    private final boolean isPermanent;
+    private final boolean removal;
+    private final String overrideMask;
+
+    private RestrictionWrite(UUID playerUUID, String restrictionName, long expireTime, boolean isPermanent, boolean removal,
+                             String overrideMask) {
+        this.playerUUID = playerUUID;
+        this.restrictionName = restrictionName;
+        this.expireTime = expireTime;
+        this.isPermanent = isPermanent;
+        this.removal = removal;
+        this.overrideMask = overrideMask;
+    }
+
+    public static RestrictionWrite save(UUID playerUUID, String restrictionName, long expireTime, boolean isPermanent) {
+        return new RestrictionWrite(playerUUID, restrictionName, expireTime, isPermanent, false, null);
+    }
+
+    public static RestrictionWrite remove(UUID playerUUID, String restrictionName) {
+        return new RestrictionWrite(playerUUID, restrictionName, 0L, false, true, null);
+    }
+
+    public static RestrictionWrite overrides(UUID playerUUID, String overrideMask) {
+        return new RestrictionWrite(playerUUID, null, 0L, false, overrideMask.isEmpty(), overrideMask);
+    }
+
+    public UUID getPlayerUUID() {
+        return playerUUID;
+    }
+
+    public String getRestrictionName() {
+        return restrictionName;
+    }
+
+    public long getExpireTime() {
+        return expireTime;
+    }
+
+    public boolean isPermanent() {
+        return isPermanent;
+    }
+
+    public boolean isRemoval() {
+        return removal;
+    }
+
+    public boolean isOverrides() {
+        return overrideMask != null;
+    }
+
+    public String getOverrideMask() {
+        return overrideMask;
+    }
+}
@@ -0,0 +1,364 @@
+package newplayerpanel.storage;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RestrictionWriteQueue {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30000L;
+
+    private final JavaPlugin plugin;
+    private final StorageProvider storageProvider;
+    private final int softLimit;
+    private final long flushDelayMillis;
+    private final Object queueLock = new Object();
+    private final Object flushLock = new Object();
+    private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    private boolean cleanupRequested;
+    private boolean running;
+    private int consecutiveFailures;
+    private Thread worker;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong softLimitHits = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile int highWatermark;
+
+    public RestrictionWriteQueue(JavaPlugin plugin, StorageProvider storageProvider, int softLimit, long flushDelayMillis) {
+        this.plugin = plugin;
+        this.storageProvider = storageProvider;
+        this.softLimit = Math.max(1, softLimit);
+        this.flushDelayMillis = Math.max(0L, flushDelayMillis);
+    }
+
+    public void start() {
+        synchronized (queueLock) {
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        worker = new Thread(this::runWorker, "NewPlayerPanel-RestrictionWriter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void shutdown() {
+        Thread thread;
+        synchronized (queueLock) {
+            running = false;
+            queueLock.notifyAll();
+            thread = worker;
+            worker = null;
+        }
+
+        if (thread != null) {
+            try {
+                thread.join(10000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+
+        List<PendingWrite> lost;
+        synchronized (queueLock) {
+            lost = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        if (!lost.isEmpty()) {
+            dropped.addAndGet(lost.size());
+            plugin.getLogger().severe("Lost " + lost.size() + " player restriction writes that could not be saved before shutdown.");
+            fail(lost);
+        }
+
+        if (softLimitHits.get() > 0 || failedBatches.get() > 0) {
+            plugin.getLogger().info("Restriction write queue: " + written.get() + " writes in " + batches.get()
+                + " batches, " + coalesced.get() + " coalesced, soft limit reached " + softLimitHits.get() + " times, "
+                + failedBatches.get() + " failed batches, " + dropped.get() + " dropped, peak depth " + highWatermark + ".");
+        }
+    }
+
+    public void save(UUID playerUUID, String restrictionName, long expireTime, boolean isPermanent) {
+        enqueue(RestrictionWrite.save(playerUUID, restrictionName, expireTime, isPermanent));
+    }
+
+    public void remove(UUID playerUUID, String restrictionName) {
+        enqueue(RestrictionWrite.remove(playerUUID, restrictionName));
+    }
+
+    public void requestCleanup() {
+        synchronized (queueLock) {
+            cleanupRequested = true;
+            queueLock.notifyAll();
+        }
+    }
+
+    public CompletableFuture<Boolean> enqueueAll(List<RestrictionWrite> writes) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        if (writes.isEmpty()) {
+            future.complete(true);
+            return future;
+        }
+
+        Ticket ticket = new Ticket(future);
+        synchronized (queueLock) {
+            for (RestrictionWrite write : writes) {
+                add(write, ticket);
+            }
+            signal();
+        }
+        return future;
+    }
+
+    public void enqueue(RestrictionWrite write) {
+        synchronized (queueLock) {
+            add(write, null);
+            signal();
+        }
+    }
+
+    private void add(RestrictionWrite write, Ticket ticket) {
+        String key = key(write);
+        PendingWrite entry = new PendingWrite(write);
+        enqueued.incrementAndGet();
+        PendingWrite previous = pending.remove(key);
+        if (previous != null) {
+            coalesced.incrementAndGet();
+            entry.tickets.addAll(previous.tickets);
+        }
+        if (ticket != null) {
+            ticket.remaining++;
+            entry.tickets.add(ticket);
+        }
+        pending.put(key, entry);
+    }
+
+    private void signal() {
+        int depth = pending.size();
+        if (depth > highWatermark) {
+            highWatermark = depth;
+        }
+        if (depth >= softLimit) {
+            softLimitHits.incrementAndGet();
+        }
+        queueLock.notifyAll();
+    }
+
+    private static String key(RestrictionWrite write) {
+        if (write.isOverrides()) {
+            return write.getPlayerUUID() + "/overrides";
+        }
+        return write.getPlayerUUID() + ":" + write.getRestrictionName().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean flush() {
+        boolean success = true;
+        synchronized (flushLock) {
+            List<PendingWrite> batch;
+            boolean cleanup;
+            synchronized (queueLock) {
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                cleanup = cleanupRequested;
+                cleanupRequested = false;
+            }
+
+            if (!batch.isEmpty()) {
+                List<RestrictionWrite> writes = new ArrayList<>(batch.size());
+                for (PendingWrite entry : batch) {
+                    writes.add(entry.write);
+                }
+                try {
+                    storageProvider.writePlayerRestrictions(writes);
+                    written.addAndGet(batch.size());
+                    batches.incrementAndGet();
+                    complete(batch);
+                } catch (Exception e) {
+                    success = false;
+                    failedBatches.incrementAndGet();
+                    plugin.getLogger().warning("Error writing " + batch.size() + " player restrictions, will retry: " + e.getMessage());
+                    requeue(batch);
+                }
+            }
+
+            synchronized (queueLock) {
+                consecutiveFailures = success ? 0 : consecutiveFailures + 1;
+            }
+
+            if (cleanup) {
+                try {
+                    storageProvider.cleanupExpiredRestrictions();
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Error cleaning up restrictions: " + e.getMessage());
+                }
+            }
+        }
+        return success;
+    }
+
+    private void complete(List<PendingWrite> batch) {
+        List<Ticket> done = new ArrayList<>();
+        synchronized (queueLock) {
+            for (PendingWrite entry : batch) {
+                for (Ticket ticket : entry.tickets) {
+                    if (--ticket.remaining == 0) {
+                        done.add(ticket);
+                    }
+                }
+            }
+        }
+        for (Ticket ticket : done) {
+            ticket.future.complete(true);
+        }
+    }
+
+    private void requeue(List<PendingWrite> batch) {
+        List<PendingWrite> failed = new ArrayList<>();
+        synchronized (queueLock) {
+            for (PendingWrite entry : batch) {
+                if (entry.attempts + 1 >= MAX_ATTEMPTS) {
+                    failed.add(entry);
+                    continue;
+                }
+                retried.incrementAndGet();
+                String key = key(entry.write);
+                PendingWrite newer = pending.get(key);
+                if (newer != null) {
+                    newer.tickets.addAll(entry.tickets);
+                    continue;
+                }
+                PendingWrite retry = new PendingWrite(entry.write);
+                retry.attempts = entry.attempts + 1;
+                retry.tickets.addAll(entry.tickets);
+                pending.put(key, retry);
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            dropped.addAndGet(failed.size());
+            plugin.getLogger().severe("Dropped " + failed.size() + " player restriction writes after " + MAX_ATTEMPTS + " failed attempts.");
+            fail(failed);
+        }
+    }
+
+    private static void fail(List<PendingWrite> entries) {
+        for (PendingWrite entry : entries) {
+            for (Ticket ticket : entry.tickets) {
+                ticket.future.complete(false);
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            synchronized (queueLock) {
+                while (running && pending.isEmpty() && !cleanupRequested) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                boolean backoff = consecutiveFailures > 0;
+                long delay = backoff
+                    ? Math.min(MAX_RETRY_DELAY_MILLIS, 500L << Math.min(consecutiveFailures - 1, 6))
+                    : flushDelayMillis;
+                long deadline = System.currentTimeMillis() + delay;
+                long remaining;
+                while (running && (backoff || pending.size() < softLimit)
+                        && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        queueLock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            flush();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (queueLock) {
+            return pending.size();
+        }
+    }
+
+    public int getSoftLimit() {
+        return softLimit;
+    }
+
+    public int getHighWatermark() {
+        return highWatermark;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getSoftLimitHits() {
+        return softLimitHits.get();
+    }
+
+    public long getFailedBatchCount() {
+        return failedBatches.get();
+    }
+
+    public long getRetriedCount() {
+        return retried.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private static final class PendingWrite {
+        private final RestrictionWrite write;
+        private final List<Ticket> tickets = new ArrayList<>(1);
+        private int attempts;
+
+        private PendingWrite(RestrictionWrite write) {
+            this.write = write;
+        }
+    }
+
+    private static final class Ticket {
+        private final CompletableFuture<Boolean> future;
+        private int remaining;
+
+        private Ticket(CompletableFuture<Boolean> future) {
+            this.future = future;
+        }
+    }
+}
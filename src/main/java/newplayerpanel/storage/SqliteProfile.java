@@ -0,0 +1,94 @@
+package newplayerpanel.storage;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+public final class SqliteProfile {
+
+    private static final List<String> JOURNAL_MODES = Arrays.asList("DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+    private static final List<String> SYNCHRONOUS_MODES = Arrays.asList("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final List<String> TEMP_STORES = Arrays.asList("DEFAULT", "FILE", "MEMORY");
+
+    private final boolean performance;
+    private final String journalMode;
+    private final String synchronous;
+    private final long mmapSize;
+    private final int cacheSize;
+    private final String tempStore;
+    private final int busyTimeoutMillis;
+    private final int readPoolSize;
+
+    private SqliteProfile(boolean performance, String journalMode, String synchronous, long mmapSize, int cacheSize,
+                          String tempStore, int busyTimeoutMillis, int readPoolSize) {
+        this.performance = performance;
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.mmapSize = mmapSize;
+        this.cacheSize = cacheSize;
+        this.tempStore = tempStore;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        this.readPoolSize = readPoolSize;
+    }
+
+    public static SqliteProfile load(FileConfiguration config, Logger logger) {
+        String profile = config.getString("database.sqlite.profile", "performance");
+        boolean performance = !"default".equalsIgnoreCase(profile);
+        if (performance && !"performance".equalsIgnoreCase(profile)) {
+            logger.warning("Unknown SQLite profile '" + profile + "', using 'performance'.");
+        }
+
+        return new SqliteProfile(
+            performance,
+            option(config, "journal-mode", "WAL", JOURNAL_MODES, logger),
+            option(config, "synchronous", "NORMAL", SYNCHRONOUS_MODES, logger),
+            Math.max(0L, config.getLong("database.sqlite.mmap-size", 268435456L)),
+            config.getInt("database.sqlite.cache-size", -16384),
+            option(config, "temp-store", "MEMORY", TEMP_STORES, logger),
+            Math.max(0, config.getInt("database.sqlite.busy-timeout-ms", 5000)),
+            Math.max(0, config.getInt("database.sqlite.read-pool-size", 4)));
+    }
+
+    private static String option(FileConfiguration config, String key, String def, List<String> allowed, Logger logger) {
+        String value = config.getString("database.sqlite." + key, def).toUpperCase(Locale.ROOT);
+        if (!allowed.contains(value)) {
+            logger.warning("Invalid database.sqlite." + key + " '" + value + "', using " + def + ".");
+            return def;
+        }
+        return value;
+    }
+
+    public void apply(HikariConfig hikariConfig, boolean readOnly) {
+        hikariConfig.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeoutMillis));
+        if (readOnly) {
+            hikariConfig.addDataSourceProperty("open_mode", "1");
+        }
+        if (!performance) {
+            return;
+        }
+
+        if (!readOnly) {
+            hikariConfig.addDataSourceProperty("journal_mode", journalMode);
+            hikariConfig.addDataSourceProperty("synchronous", synchronous);
+        }
+        hikariConfig.addDataSourceProperty("mmap_size", String.valueOf(mmapSize));
+        hikariConfig.addDataSourceProperty("cache_size", String.valueOf(cacheSize));
+        hikariConfig.addDataSourceProperty("temp_store", tempStore);
+    }
+
+    public int getReadPoolSize() {
+        return performance ? readPoolSize : 0;
+    }
+
+    public String describe() {
+        if (!performance) {
+            return "default (single connection)";
+        }
+        return "performance (journal_mode=" + journalMode + ", synchronous=" + synchronous + ", cache_size=" + cacheSize
+            + ", mmap_size=" + mmapSize + ", temp_store=" + tempStore + ", " + getReadPoolSize() + " readers)";
+    }
+}
@@ -3,6 +3,7 @@ package newplayerpanel.storage;
 import newplayerpanel.restrictions.PlayerRestriction;
 import newplayerpanel.villagertracker.VillagerDeathRecord;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -21,6 +22,8 @@ public interface StorageProvider {
     int clearOldVillagerDeaths(long olderThanTimestamp);
     void savePlayerRestriction(UUID playerUUID, String restrictionName, long expireTime, boolean isPermanent);
     void removePlayerRestriction(UUID playerUUID, String restrictionName);
+    void writePlayerRestrictions(List<RestrictionWrite> writes);
     Map<UUID, List<PlayerRestriction>> loadPlayerRestrictions();
+    Map<UUID, StoredPlayerRestrictions> loadPlayerRestrictionData(Collection<UUID> playerUUIDs);
     void cleanupExpiredRestrictions();
 }
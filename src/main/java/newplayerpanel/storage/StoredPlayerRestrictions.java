@@ -0,0 +1,45 @@
+package newplayerpanel.storage;
+
+import newplayerpanel.restrictions.PlayerRestriction;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+public class StoredPlayerRestrictions {
+
+    public static final StoredPlayerRestrictions EMPTY = new StoredPlayerRestrictions(Collections.emptyList(), new BitSet());
+
+    private final List<PlayerRestriction> restrictions;
+    private final BitSet overrides;
+
+    public StoredPlayerRestrictions(List<PlayerRestriction> restrictions, BitSet overrides) {
+        this.restrictions = Collections.unmodifiableList(new ArrayList<>(restrictions));
+        this.overrides = (BitSet) overrides.clone();
+    }
+
+    public List<PlayerRestriction> getRestrictions() {
+        return restrictions;
+    }
+
+    public BitSet getOverrides() {
+        return (BitSet) overrides.clone();
+    }
+
+    public static String encodeOverrides(BitSet overrides) {
+        return overrides.isEmpty() ? "" : Base64.getEncoder().encodeToString(overrides.toByteArray());
+    }
+
+    public static BitSet decodeOverrides(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return new BitSet();
+        }
+        try {
+            return BitSet.valueOf(Base64.getDecoder().decode(encoded));
+        } catch (IllegalArgumentException e) {
+            return new BitSet();
+        }
+    }
+}
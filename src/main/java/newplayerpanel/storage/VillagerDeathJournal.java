@@ -0,0 +1,255 @@
+package newplayerpanel.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import newplayerpanel.villagertracker.VillagerDeathRecord;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class VillagerDeathJournal {
+
+    private final JavaPlugin plugin;
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File compactingFile;
+    private final int compactThreshold;
+    private final Gson gson = new Gson();
+    private final Object lock = new Object();
+    private final ExecutorService compactor;
+    private Writer journalWriter;
+    private int journalEntries;
+    private long generation;
+    private boolean compactionPending;
+
+    public VillagerDeathJournal(JavaPlugin plugin, File snapshotFile, File journalFile, int compactThreshold) {
+        this.plugin = plugin;
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.compactingFile = new File(journalFile.getParentFile(), journalFile.getName() + ".compacting");
+        this.compactThreshold = Math.max(1, compactThreshold);
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "NewPlayerPanel-VillagerDeathCompactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public List<VillagerDeathRecord> load() throws IOException {
+        List<VillagerDeathRecord> records = new ArrayList<>();
+        if (snapshotFile.exists() && snapshotFile.length() > 0) {
+            readSnapshot(records);
+        }
+
+        boolean recovered = compactingFile.exists();
+        if (recovered) {
+            Set<String> known = new HashSet<>();
+            for (VillagerDeathRecord record : records) {
+                known.add(key(record));
+            }
+            readJournal(compactingFile, records, known);
+        }
+        int entries = journalFile.exists() ? readJournal(journalFile, records, null) : 0;
+
+        synchronized (lock) {
+            if (recovered) {
+                writeSnapshot(records);
+                Files.deleteIfExists(journalFile.toPath());
+                Files.deleteIfExists(compactingFile.toPath());
+                plugin.getLogger().info("Recovered interrupted compaction of " + snapshotFile.getName() + ".");
+                entries = 0;
+            }
+            journalEntries = entries;
+            journalWriter = openJournal();
+        }
+        return records;
+    }
+
+    public boolean append(VillagerDeathRecord record) {
+        synchronized (lock) {
+            try {
+                if (journalWriter == null) {
+                    journalWriter = openJournal();
+                }
+                journalWriter.write(gson.toJson(record));
+                journalWriter.write('\n');
+                journalWriter.flush();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Error appending to " + journalFile.getName() + ": " + e.getMessage());
+                return false;
+            }
+            journalEntries++;
+            return journalEntries >= compactThreshold && !compactionPending;
+        }
+    }
+
+    public CompletableFuture<Void> compact(List<VillagerDeathRecord> records) {
+        long target;
+        synchronized (lock) {
+            try {
+                rotate();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Error rotating " + journalFile.getName() + ": " + e.getMessage());
+                return CompletableFuture.completedFuture(null);
+            }
+            target = ++generation;
+            compactionPending = true;
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                writeSnapshot(records);
+                synchronized (lock) {
+                    if (target == generation) {
+                        Files.deleteIfExists(compactingFile.toPath());
+                        compactionPending = false;
+                    }
+                }
+                plugin.getLogger().fine("Compacted " + records.size() + " villager deaths into " + snapshotFile.getName());
+            } catch (IOException e) {
+                plugin.getLogger().warning("Error compacting " + snapshotFile.getName() + ": " + e.getMessage());
+                synchronized (lock) {
+                    compactionPending = false;
+                }
+            }
+        }, compactor);
+    }
+
+    public void shutdown() {
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(30L, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Villager death compaction did not finish in time; the journal will be replayed on startup.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (lock) {
+            if (journalWriter != null) {
+                try {
+                    journalWriter.close();
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Error closing " + journalFile.getName() + ": " + e.getMessage());
+                }
+                journalWriter = null;
+            }
+        }
+    }
+
+    public boolean isCompactionDue() {
+        synchronized (lock) {
+            return journalEntries >= compactThreshold && !compactionPending;
+        }
+    }
+
+    public int getJournalEntries() {
+        synchronized (lock) {
+            return journalEntries;
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (journalWriter != null) {
+            journalWriter.close();
+            journalWriter = null;
+        }
+        if (journalFile.exists()) {
+            if (compactingFile.exists()) {
+                Files.write(compactingFile.toPath(), Files.readAllBytes(journalFile.toPath()), StandardOpenOption.APPEND);
+                Files.delete(journalFile.toPath());
+            } else {
+                Files.move(journalFile.toPath(), compactingFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        journalEntries = 0;
+        journalWriter = openJournal();
+    }
+
+    private Writer openJournal() throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), StandardCharsets.UTF_8));
+    }
+
+    private void readSnapshot(List<VillagerDeathRecord> records) throws IOException {
+        try (JsonReader reader = new JsonReader(new BufferedReader(
+                new InputStreamReader(new FileInputStream(snapshotFile), StandardCharsets.UTF_8)))) {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                return;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                VillagerDeathRecord record = gson.fromJson(reader, VillagerDeathRecord.class);
+                if (record != null) {
+                    records.add(record);
+                }
+            }
+            reader.endArray();
+        } catch (JsonParseException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private int readJournal(File file, List<VillagerDeathRecord> records, Set<String> known) throws IOException {
+        int entries = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    VillagerDeathRecord record = gson.fromJson(line, VillagerDeathRecord.class);
+                    if (record != null && (known == null || !known.contains(key(record)))) {
+                        records.add(record);
+                    }
+                    entries++;
+                } catch (JsonParseException e) {
+                    plugin.getLogger().warning("Skipping malformed line " + lineNumber + " in " + file.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static String key(VillagerDeathRecord record) {
+        return record.getTimestamp() + "|" + record.getPlayerUUID() + "|" + record.getWorld() + "|"
+            + record.getX() + "|" + record.getY() + "|" + record.getZ() + "|" + record.getVillagerType();
+    }
+
+    private void writeSnapshot(List<VillagerDeathRecord> records) throws IOException {
+        Path target = snapshotFile.toPath();
+        Path temp = target.resolveSibling(snapshotFile.getName() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temp.toFile());
+             JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)))) {
+            writer.beginArray();
+            for (VillagerDeathRecord record : records) {
+                gson.toJson(record, VillagerDeathRecord.class, writer);
+            }
+            writer.endArray();
+            writer.flush();
+            output.getFD().sync();
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
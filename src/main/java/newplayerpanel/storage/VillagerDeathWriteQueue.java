@@ -0,0 +1,266 @@
+package newplayerpanel.storage;
+
+import newplayerpanel.villagertracker.VillagerDeathRecord;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class VillagerDeathWriteQueue {
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 30000L;
+
+    private final JavaPlugin plugin;
+    private final DatabaseStorage storage;
+    private final int batchSize;
+    private final int capacity;
+    private final long flushDelayMillis;
+    private final int maxRetries;
+    private final Object queueLock = new Object();
+    private final Object flushLock = new Object();
+    private final Deque<VillagerDeathRecord> pending = new ArrayDeque<>();
+    private boolean running;
+    private boolean overflowing;
+    private int consecutiveFailures;
+    private Thread worker;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private volatile int highWatermark;
+
+    public VillagerDeathWriteQueue(JavaPlugin plugin, DatabaseStorage storage, int batchSize, int capacity,
+                                   long flushDelayMillis, int maxRetries) {
+        this.plugin = plugin;
+        this.storage = storage;
+        this.batchSize = Math.max(1, batchSize);
+        this.capacity = Math.max(this.batchSize, capacity);
+        this.flushDelayMillis = Math.max(0L, flushDelayMillis);
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+
+    public void start() {
+        synchronized (queueLock) {
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        worker = new Thread(this::runWorker, "NewPlayerPanel-VillagerDeathWriter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void shutdown() {
+        Thread thread;
+        synchronized (queueLock) {
+            running = false;
+            queueLock.notifyAll();
+            thread = worker;
+            worker = null;
+        }
+
+        if (thread != null) {
+            try {
+                thread.join(10000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+
+        int lost;
+        synchronized (queueLock) {
+            lost = pending.size();
+            pending.clear();
+        }
+        if (lost > 0) {
+            dropped.addAndGet(lost);
+            plugin.getLogger().severe("Lost " + lost + " villager deaths that could not be saved before shutdown.");
+        }
+
+        if (dropped.get() > 0 || overflows.get() > 0) {
+            plugin.getLogger().info("Villager death queue: " + written.get() + " records in " + batches.get()
+                + " batches, " + retries.get() + " retries, " + dropped.get() + " dropped, "
+                + overflows.get() + " overflows, peak depth " + highWatermark + ".");
+        }
+    }
+
+    public void enqueue(VillagerDeathRecord record) {
+        boolean warn = false;
+        synchronized (queueLock) {
+            enqueued.incrementAndGet();
+            int depth = pending.size();
+            if (depth >= capacity) {
+                overflows.incrementAndGet();
+                dropped.incrementAndGet();
+                warn = !overflowing;
+                overflowing = true;
+                queueLock.notifyAll();
+            } else {
+                pending.addLast(record);
+                depth++;
+                if (depth > highWatermark) {
+                    highWatermark = depth;
+                }
+                if (depth >= batchSize || depth == 1) {
+                    queueLock.notifyAll();
+                }
+            }
+        }
+
+        if (warn) {
+            plugin.getLogger().warning("Villager death queue reached capacity (" + capacity + "), dropping new records until it drains.");
+        }
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            while (true) {
+                List<VillagerDeathRecord> batch = new ArrayList<>();
+                synchronized (queueLock) {
+                    while (batch.size() < batchSize && !pending.isEmpty()) {
+                        batch.add(pending.pollFirst());
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                if (!write(batch)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean write(List<VillagerDeathRecord> batch) {
+        try {
+            storage.insertVillagerDeaths(batch);
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+            synchronized (queueLock) {
+                consecutiveFailures = 0;
+                if (pending.size() < capacity) {
+                    overflowing = false;
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            boolean retry;
+            synchronized (queueLock) {
+                retry = running && isTransient(e) && consecutiveFailures < maxRetries
+                    && !Thread.currentThread().isInterrupted();
+                if (retry) {
+                    consecutiveFailures++;
+                    for (int i = batch.size() - 1; i >= 0; i--) {
+                        pending.addFirst(batch.get(i));
+                    }
+                } else {
+                    consecutiveFailures = 0;
+                }
+            }
+
+            if (retry) {
+                retries.incrementAndGet();
+                plugin.getLogger().fine("Villager death batch failed with a transient error, retrying on the writer thread: " + e.getMessage());
+            } else {
+                dropped.addAndGet(batch.size());
+                plugin.getLogger().warning("Error saving " + batch.size() + " villager deaths: " + e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        if (state != null && (state.startsWith("08") || state.startsWith("40") || state.equals("HYT00"))) {
+            return true;
+        }
+        String message = e.getMessage();
+        return message != null && (message.contains("SQLITE_BUSY") || message.contains("SQLITE_LOCKED")
+            || message.contains("database is locked"));
+    }
+
+    private void runWorker() {
+        while (true) {
+            synchronized (queueLock) {
+                while (running && pending.isEmpty()) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                boolean backoff = consecutiveFailures > 0;
+                long delay = backoff
+                    ? Math.min(MAX_RETRY_DELAY_MILLIS, 200L << Math.min(consecutiveFailures - 1, 7))
+                    : flushDelayMillis;
+                long deadline = System.currentTimeMillis() + delay;
+                long remaining;
+                while (running && (backoff || pending.size() < batchSize)
+                        && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        queueLock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            flush();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (queueLock) {
+            return pending.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getHighWatermark() {
+        return highWatermark;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+}
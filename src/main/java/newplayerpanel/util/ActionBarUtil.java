@@ -11,6 +11,8 @@ public class ActionBarUtil {
     private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
     private static Method sendActionBarMethod;
     private static Method sendMessageMethod;
+    private static Object serverMiniMessage;
+    private static Method serverDeserializeMethod;
     private static boolean methodsInitialized = false;
     
     static {
@@ -51,40 +53,66 @@ public class ActionBarUtil {
                 }
             }
             
+            if (sendActionBarMethod != null || sendMessageMethod != null) {
+                try {
+                    Class<?> serverMiniMessageClass = Class.forName("net.kyori.adventure.text.minimessage.MiniMessage");
+                    serverMiniMessage = serverMiniMessageClass.getMethod("miniMessage").invoke(null);
+                    serverDeserializeMethod = serverMiniMessageClass.getMethod("deserialize", String.class);
+                } catch (Exception e) {
+                    serverMiniMessage = null;
+                    serverDeserializeMethod = null;
+                }
+            }
+            
             methodsInitialized = true;
         } catch (Exception e) {
         }
     }
     
+    public static PreparedMessage prepare(Component component) {
+        String legacyMessage = net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection().serialize(component);
+        Object serverComponent = null;
+        if (serverDeserializeMethod != null) {
+            try {
+                serverComponent = serverDeserializeMethod.invoke(serverMiniMessage, legacyMessage);
+            } catch (Exception e) {
+            }
+        }
+        return new PreparedMessage(legacyMessage, serverComponent);
+    }
+    
+    public static void sendActionBar(Player player, PreparedMessage message) {
+        if (message.serverComponent != null && sendActionBarMethod != null) {
+            try {
+                sendActionBarMethod.invoke(player, message.serverComponent);
+                return;
+            } catch (Exception e) {
+            }
+        }
+        
+        try {
+            player.spigot().sendMessage(net.md_5.bungee.api.ChatMessageType.ACTION_BAR, message.getSpigotComponents());
+        } catch (Exception e) {
+            try {
+                player.sendMessage(message.legacyMessage);
+            } catch (Exception ex) {
+            }
+        }
+    }
+    
     public static void sendActionBar(Player player, String message) {
         Component component = convertLegacyToComponent(message);
         sendActionBar(player, component);
     }
     
     public static void sendActionBar(Player player, Component component) {
+        PreparedMessage message;
         try {
-            String legacyMessage = net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection().serialize(component);
-            
-            if (sendActionBarMethod != null) {
-                try {
-                    Class<?> serverMiniMessageClass = Class.forName("net.kyori.adventure.text.minimessage.MiniMessage");
-                    Object serverMiniMessage = serverMiniMessageClass.getMethod("miniMessage").invoke(null);
-                    Object serverComponent = serverMiniMessageClass.getMethod("deserialize", String.class).invoke(serverMiniMessage, legacyMessage);
-                    sendActionBarMethod.invoke(player, serverComponent);
-                    return;
-                } catch (Exception e) {
-                }
-            }
-            
-            player.spigot().sendMessage(net.md_5.bungee.api.ChatMessageType.ACTION_BAR, 
-                net.md_5.bungee.api.chat.TextComponent.fromLegacyText(legacyMessage));
+            message = prepare(component);
         } catch (Exception e) {
-            try {
-                String legacyMessage = net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection().serialize(component);
-                player.sendMessage(legacyMessage);
-            } catch (Exception ex) {
-            }
+            return;
         }
+        sendActionBar(player, message);
     }
     
     public static void sendMessage(Player player, String message) {
@@ -96,11 +124,9 @@ public class ActionBarUtil {
         try {
             String legacyMessage = net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacySection().serialize(component);
             
-            if (sendMessageMethod != null) {
+            if (sendMessageMethod != null && serverDeserializeMethod != null) {
                 try {
-                    Class<?> serverMiniMessageClass = Class.forName("net.kyori.adventure.text.minimessage.MiniMessage");
-                    Object serverMiniMessage = serverMiniMessageClass.getMethod("miniMessage").invoke(null);
-                    Object serverComponent = serverMiniMessageClass.getMethod("deserialize", String.class).invoke(serverMiniMessage, legacyMessage);
+                    Object serverComponent = serverDeserializeMethod.invoke(serverMiniMessage, legacyMessage);
                     sendMessageMethod.invoke(player, serverComponent);
                     return;
                 } catch (Exception e) {
@@ -164,4 +190,27 @@ public class ActionBarUtil {
                 .replace("&k", "<obfuscated>")
                 .replace("&r", "<reset>");
     }
+    
+    public static final class PreparedMessage {
+        
+        private final String legacyMessage;
+        private final Object serverComponent;
+        private net.md_5.bungee.api.chat.BaseComponent[] spigotComponents;
+        
+        private PreparedMessage(String legacyMessage, Object serverComponent) {
+            this.legacyMessage = legacyMessage;
+            this.serverComponent = serverComponent;
+        }
+        
+        public String getLegacyMessage() {
+            return legacyMessage;
+        }
+        
+        private net.md_5.bungee.api.chat.BaseComponent[] getSpigotComponents() {
+            if (spigotComponents == null) {
+                spigotComponents = net.md_5.bungee.api.chat.TextComponent.fromLegacyText(legacyMessage);
+            }
+            return spigotComponents;
+        }
+    }
 }
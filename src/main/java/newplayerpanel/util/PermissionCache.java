@@ -0,0 +1,223 @@
+package newplayerpanel.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.ServerCommandEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class PermissionCache implements Listener {
+
+    public static final String RESTRICTIONS_BYPASS = "newplayerpanel.restrictions.bypass";
+    public static final String SPAWNPROTECT_BYPASS = "newplayerpanel.spawnprotect.bypass";
+
+    private static final Set<String> PERMISSION_COMMANDS = new HashSet<>(Arrays.asList(
+        "op", "deop", "lp", "luckperms", "perm", "perms", "permissions", "pex", "manuadd", "manuaddp", "manudelp"));
+    private static final Set<String> OP_COMMANDS = new HashSet<>(Arrays.asList("op", "deop"));
+
+    private final JavaPlugin plugin;
+    private final String[] permissions;
+    private final Map<UUID, Integer> cache = new ConcurrentHashMap<>();
+    private final Set<UUID> recalculated = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean recalculateScheduled = new AtomicBoolean();
+    private int refreshTaskId = -1;
+    private boolean refreshScheduled;
+    private AutoCloseable luckPermsSubscription;
+
+    public PermissionCache(JavaPlugin plugin, String... permissions) {
+        this.plugin = plugin;
+        this.permissions = permissions.clone();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            refresh(player);
+        }
+    }
+
+    public void start() {
+        stop();
+        luckPermsSubscription = subscribeLuckPerms();
+        if (luckPermsSubscription != null) {
+            return;
+        }
+        long periodTicks = Math.max(1L, plugin.getConfig().getLong("permission-cache.refresh-seconds", 10L)) * 20L;
+        refreshTaskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this::refreshAll, periodTicks, periodTicks);
+    }
+
+    public void stop() {
+        if (refreshTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(refreshTaskId);
+            refreshTaskId = -1;
+        }
+        if (luckPermsSubscription != null) {
+            try {
+                luckPermsSubscription.close();
+            } catch (Exception e) {
+                plugin.getLogger().fine("Error unsubscribing from LuckPerms: " + e.getMessage());
+            }
+            luckPermsSubscription = null;
+        }
+    }
+
+    private AutoCloseable subscribeLuckPerms() {
+        Plugin luckPerms = Bukkit.getPluginManager().getPlugin("LuckPerms");
+        if (luckPerms == null || !luckPerms.isEnabled()) {
+            return null;
+        }
+
+        try {
+            ClassLoader loader = luckPerms.getClass().getClassLoader();
+            Class<?> providerType = Class.forName("net.luckperms.api.LuckPermsProvider", true, loader);
+            Class<?> apiType = Class.forName("net.luckperms.api.LuckPerms", true, loader);
+            Class<?> busType = Class.forName("net.luckperms.api.event.EventBus", true, loader);
+            Class<?> eventType = Class.forName("net.luckperms.api.event.user.UserDataRecalculateEvent", true, loader);
+            Class<?> userType = Class.forName("net.luckperms.api.model.user.User", true, loader);
+            Method getUser = eventType.getMethod("getUser");
+            Method getUniqueId = userType.getMethod("getUniqueId");
+
+            Object api = providerType.getMethod("get").invoke(null);
+            Object eventBus = apiType.getMethod("getEventBus").invoke(api);
+            Consumer<Object> handler = event -> {
+                try {
+                    onRecalculate((UUID) getUniqueId.invoke(getUser.invoke(event)));
+                } catch (ReflectiveOperationException e) {
+                    plugin.getLogger().fine("Failed to read LuckPerms recalculation event: " + e.getMessage());
+                }
+            };
+            Object subscription = busType.getMethod("subscribe", Object.class, Class.class, Consumer.class)
+                .invoke(eventBus, plugin, eventType, handler);
+            plugin.getLogger().info("Permission cache follows LuckPerms recalculation events.");
+            return (AutoCloseable) subscription;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            plugin.getLogger().warning("Failed to hook into LuckPerms, using periodic permission refresh: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void onRecalculate(UUID playerUUID) {
+        recalculated.add(playerUUID);
+        if (!plugin.isEnabled() || !recalculateScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            recalculateScheduled.set(false);
+            Iterator<UUID> iterator = recalculated.iterator();
+            while (iterator.hasNext()) {
+                Player player = Bukkit.getPlayer(iterator.next());
+                iterator.remove();
+                if (player != null) {
+                    refresh(player);
+                }
+            }
+        });
+    }
+
+    public boolean hasPermission(Player player, String permission) {
+        int index = indexOf(permission);
+        if (index < 0) {
+            return player.hasPermission(permission);
+        }
+
+        Integer mask = cache.get(player.getUniqueId());
+        if (mask == null) {
+            mask = refresh(player);
+        }
+        return (mask & (1 << index)) != 0;
+    }
+
+    public int refresh(Player player) {
+        int mask = 0;
+        for (int i = 0; i < permissions.length; i++) {
+            if (player.hasPermission(permissions[i])) {
+                mask |= 1 << i;
+            }
+        }
+        if (player.isOnline()) {
+            cache.put(player.getUniqueId(), mask);
+        }
+        return mask;
+    }
+
+    public void refreshAll() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            refresh(player);
+        }
+    }
+
+    public void scheduleRefreshAll() {
+        if (refreshScheduled || !plugin.isEnabled()) {
+            return;
+        }
+        refreshScheduled = true;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            refreshScheduled = false;
+            refreshAll();
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        refresh(player);
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (player.isOnline()) {
+                refresh(player);
+            }
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        cache.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
+        if (isPermissionCommand(event.getMessage())) {
+            scheduleRefreshAll();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onServerCommand(ServerCommandEvent event) {
+        if (isPermissionCommand(event.getCommand())) {
+            scheduleRefreshAll();
+        }
+    }
+
+    private boolean isPermissionCommand(String command) {
+        int start = command.startsWith("/") ? 1 : 0;
+        int end = command.indexOf(' ', start);
+        String label = command.substring(start, end < 0 ? command.length() : end).toLowerCase(Locale.ROOT);
+        int colon = label.indexOf(':');
+        if (colon >= 0) {
+            label = label.substring(colon + 1);
+        }
+        return (luckPermsSubscription != null ? OP_COMMANDS : PERMISSION_COMMANDS).contains(label);
+    }
+
+    private int indexOf(String permission) {
+        for (int i = 0; i < permissions.length; i++) {
+            if (permissions[i].equals(permission)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
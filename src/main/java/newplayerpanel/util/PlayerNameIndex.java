@@ -0,0 +1,137 @@
+package newplayerpanel.util;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+public class PlayerNameIndex implements Listener {
+
+    private final JavaPlugin plugin;
+    private final Executor asyncExecutor;
+    private final Map<String, UUID> uuidsByName = new ConcurrentHashMap<>();
+    private final Map<UUID, String> namesByUUID = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
+    public PlayerNameIndex(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.asyncExecutor = task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    public void load() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            record(player.getUniqueId(), player.getName());
+        }
+
+        File userCache = new File(Bukkit.getWorldContainer(), "usercache.json");
+        List<World> worlds = Bukkit.getWorlds();
+        File playerData = worlds.isEmpty() ? null : new File(worlds.get(0).getWorldFolder(), "playerdata");
+
+        asyncExecutor.execute(() -> {
+            try {
+                long start = System.nanoTime();
+                index(userCache, playerData);
+                plugin.getLogger().info("Indexed " + namesByUUID.size() + " player names in "
+                    + (System.nanoTime() - start) / 1_000_000L + " ms.");
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to build player name index: " + e.getMessage());
+            } finally {
+                loaded.complete(null);
+            }
+        });
+    }
+
+    public CompletableFuture<UUID> resolve(String name) {
+        Player online = Bukkit.getPlayerExact(name);
+        if (online != null) {
+            return CompletableFuture.completedFuture(online.getUniqueId());
+        }
+        String key = name.toLowerCase(Locale.ROOT);
+        return loaded.thenApplyAsync(ignored -> uuidsByName.get(key), asyncExecutor);
+    }
+
+    public String getName(UUID playerUUID) {
+        return namesByUUID.get(playerUUID);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        record(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+    }
+
+    private void index(File userCache, File playerData) throws Exception {
+        if (userCache.isFile()) {
+            Type type = new TypeToken<List<UserCacheEntry>>(){}.getType();
+            try (Reader reader = Files.newBufferedReader(userCache.toPath(), StandardCharsets.UTF_8)) {
+                List<UserCacheEntry> entries = new Gson().fromJson(reader, type);
+                if (entries != null) {
+                    for (UserCacheEntry entry : entries) {
+                        if (entry.name != null && entry.uuid != null) {
+                            try {
+                                recordIfAbsent(UUID.fromString(entry.uuid), entry.name);
+                            } catch (IllegalArgumentException ignored) {
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        File[] files = playerData != null ? playerData.listFiles((dir, fileName) -> fileName.endsWith(".dat")) : null;
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String fileName = file.getName();
+            UUID playerUUID;
+            try {
+                playerUUID = UUID.fromString(fileName.substring(0, fileName.length() - 4));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (namesByUUID.containsKey(playerUUID)) {
+                continue;
+            }
+            OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(playerUUID);
+            if (offlinePlayer.getName() != null) {
+                recordIfAbsent(playerUUID, offlinePlayer.getName());
+            }
+        }
+    }
+
+    private void recordIfAbsent(UUID playerUUID, String name) {
+        if (namesByUUID.putIfAbsent(playerUUID, name) == null) {
+            uuidsByName.putIfAbsent(name.toLowerCase(Locale.ROOT), playerUUID);
+        }
+    }
+
+    private void record(UUID playerUUID, String name) {
+        String previous = namesByUUID.put(playerUUID, name);
+        if (previous != null && !previous.equalsIgnoreCase(name)) {
+            uuidsByName.remove(previous.toLowerCase(Locale.ROOT), playerUUID);
+        }
+        uuidsByName.put(name.toLowerCase(Locale.ROOT), playerUUID);
+    }
+
+    private static class UserCacheEntry {
+        String name;
+        String uuid;
+    }
+}
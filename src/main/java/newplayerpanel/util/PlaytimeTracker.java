@@ -0,0 +1,88 @@
+package newplayerpanel.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Statistic;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PlaytimeTracker implements Listener {
+
+    private final JavaPlugin plugin;
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+
+    public PlaytimeTracker(JavaPlugin plugin) {
+        this.plugin = plugin;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            track(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        track(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        sessions.remove(event.getPlayer().getUniqueId());
+    }
+
+    public long getPlaytimeSeconds(Player player) {
+        Session session = sessions.get(player.getUniqueId());
+        if (session == null) {
+            session = track(player);
+        }
+        return session.getPlaytimeSeconds();
+    }
+
+    public long getPlaytimeSeconds(UUID playerUUID) {
+        Session session = sessions.get(playerUUID);
+        if (session != null) {
+            return session.getPlaytimeSeconds();
+        }
+
+        Player player = Bukkit.getPlayer(playerUUID);
+        return player != null ? track(player).getPlaytimeSeconds() : 0;
+    }
+
+    public boolean isTracked(UUID playerUUID) {
+        return sessions.containsKey(playerUUID);
+    }
+
+    private Session track(Player player) {
+        long baselineTicks = 0;
+        try {
+            baselineTicks = player.getStatistic(Statistic.PLAY_ONE_MINUTE);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to get playtime for player " + player.getUniqueId() + ": " + e.getMessage());
+        }
+
+        Session session = new Session(baselineTicks / 20L, System.nanoTime());
+        sessions.put(player.getUniqueId(), session);
+        return session;
+    }
+
+    private static final class Session {
+
+        private final long baselineSeconds;
+        private final long joinNanos;
+
+        private Session(long baselineSeconds, long joinNanos) {
+            this.baselineSeconds = baselineSeconds;
+            this.joinNanos = joinNanos;
+        }
+
+        private long getPlaytimeSeconds() {
+            return baselineSeconds + (System.nanoTime() - joinNanos) / 1_000_000_000L;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class HistoryCommand implements CommandExecutor, TabCompleter {
     
@@ -51,7 +52,7 @@ public class HistoryCommand implements CommandExecutor, TabCompleter {
             return handleClearCommand(sender, args);
         }
         
-        List<VillagerDeathRecord> records;
+        CompletableFuture<List<VillagerDeathRecord>> records;
         String searchDescription;
         
         if (args.length == 0) {
@@ -174,9 +175,19 @@ public class HistoryCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
+        String description = searchDescription;
+        records.thenAccept(result -> showRecords(sender, description, result)).exceptionally(e -> {
+            plugin.getLogger().warning("Failed to load villager deaths: " + e.getMessage());
+            sender.sendMessage(messageManager.get("database-error"));
+            return null;
+        });
+        return true;
+    }
+    
+    private void showRecords(CommandSender sender, String searchDescription, List<VillagerDeathRecord> records) {
         if (records.isEmpty()) {
             sender.sendMessage(messageManager.get("tracker-no-records"));
-            return true;
+            return;
         }
         
         sender.sendMessage(searchDescription);
@@ -293,8 +304,6 @@ public class HistoryCommand implements CommandExecutor, TabCompleter {
                 "shown", "10", 
                 "total", String.valueOf(records.size())));
         }
-        
-        return true;
     }
     
     private ItemStack createItemStackFromData(Map<String, Object> data) {
@@ -413,15 +422,19 @@ public class HistoryCommand implements CommandExecutor, TabCompleter {
         }
         
         long olderThanTimestamp = System.currentTimeMillis() - (seconds * 1000L);
-        int deletedCount = dataManager.clearOldRecords(olderThanTimestamp);
-        
-        if (deletedCount >= 0) {
-            sender.sendMessage(messageManager.get("tracker-purge-success", 
-                "count", String.valueOf(deletedCount),
-                "time", timeString));
-        } else {
+        dataManager.clearOldRecords(olderThanTimestamp).thenAccept(deletedCount -> {
+            if (deletedCount >= 0) {
+                sender.sendMessage(messageManager.get("tracker-purge-success", 
+                    "count", String.valueOf(deletedCount),
+                    "time", timeString));
+            } else {
+                sender.sendMessage(messageManager.get("database-error"));
+            }
+        }).exceptionally(e -> {
+            plugin.getLogger().warning("Failed to purge villager deaths: " + e.getMessage());
             sender.sendMessage(messageManager.get("database-error"));
-        }
+            return null;
+        });
         
         return true;
     }
@@ -1,42 +1,47 @@
 package newplayerpanel.villagertracker;
 
-import newplayerpanel.storage.StorageProvider;
+import newplayerpanel.storage.AsyncStorage;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class VillagerDataManager {
     
     private final JavaPlugin plugin;
-    private final StorageProvider storageProvider;
+    private final AsyncStorage storage;
     
-    public VillagerDataManager(JavaPlugin plugin, StorageProvider storageProvider) {
+    public VillagerDataManager(JavaPlugin plugin, AsyncStorage storage) {
         this.plugin = plugin;
-        this.storageProvider = storageProvider;
+        this.storage = storage;
     }
     
     public void addRecord(VillagerDeathRecord record) {
-        storageProvider.addVillagerDeath(record);
+        storage.addVillagerDeath(record).exceptionally(e -> {
+            plugin.getLogger().warning("Failed to save villager death: " + e.getMessage());
+            return null;
+        });
     }
     
-    public List<VillagerDeathRecord> getRecords() {
-        return storageProvider.getVillagerDeaths();
+    public CompletableFuture<List<VillagerDeathRecord>> getRecords() {
+        return storage.getVillagerDeaths();
     }
     
-    public List<VillagerDeathRecord> getRecordsByPlayer(String playerName) {
-        return storageProvider.getVillagerDeathsByPlayer(playerName);
+    public CompletableFuture<List<VillagerDeathRecord>> getRecordsByPlayer(String playerName) {
+        return storage.getVillagerDeathsByPlayer(playerName);
     }
     
-    public List<VillagerDeathRecord> getRecordsByCoordinates(double x, double y, double z, String world) {
-        return storageProvider.getVillagerDeathsByCoords(x, y, z, world);
+    public CompletableFuture<List<VillagerDeathRecord>> getRecordsByCoordinates(double x, double y, double z, String world) {
+        return storage.getVillagerDeathsByCoords(x, y, z, world);
     }
     
-    public List<VillagerDeathRecord> getRecordsByPlayerAndCoordinates(String playerName, double x, double y, double z, String world) {
-        return storageProvider.getVillagerDeathsByPlayerAndCoords(playerName, x, y, z, world);
+    public CompletableFuture<List<VillagerDeathRecord>> getRecordsByPlayerAndCoordinates(String playerName, double x, double y,
+                                                                                        double z, String world) {
+        return storage.getVillagerDeathsByPlayerAndCoords(playerName, x, y, z, world);
     }
     
-    public int clearOldRecords(long olderThanTimestamp) {
-        return storageProvider.clearOldVillagerDeaths(olderThanTimestamp);
+    public CompletableFuture<Integer> clearOldRecords(long olderThanTimestamp) {
+        return storage.clearOldVillagerDeaths(olderThanTimestamp);
     }
     
     public void reload() {
@@ -1,15 +1,15 @@
 package newplayerpanel.villagertracker;
 
 import newplayerpanel.messages.MessageManager;
-import newplayerpanel.storage.StorageProvider;
+import newplayerpanel.storage.AsyncStorage;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class VillagerTrackerModule {
     
     private final VillagerDataManager dataManager;
     
-    public VillagerTrackerModule(JavaPlugin plugin, StorageProvider storageProvider, MessageManager messageManager) {
-        this.dataManager = new VillagerDataManager(plugin, storageProvider);
+    public VillagerTrackerModule(JavaPlugin plugin, AsyncStorage storage, MessageManager messageManager) {
+        this.dataManager = new VillagerDataManager(plugin, storage);
         
         plugin.getServer().getPluginManager().registerEvents(
             new VillagerDeathListener(plugin, dataManager, messageManager), plugin);